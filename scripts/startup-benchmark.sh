@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+#
+# Compares the startup of the product-service image variants: the time to the first successful request and the
+# startup time Spring Boot logs, as the median of several container starts under a pod-like CPU and memory limit.
+#
+# Build the variants first:
+#   docker build -t product-service:jvm .
+#   docker build --target cds -t product-service:cds .
+#   mvn -Paot,native spring-boot:build-image -Dspring-boot.build-image.imageName=product-service:native
+#
+# Usage: scripts/startup-benchmark.sh [image...]
+# Environment: RUNS (default 5), CPUS (default 1), MEMORY (default 512m), PORT (default 18080)
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+CPUS=${CPUS:-1}
+MEMORY=${MEMORY:-512m}
+PORT=${PORT:-18080}
+RESULT_DIR=target/startup
+IMAGES=("$@")
+if [ ${#IMAGES[@]} -eq 0 ]; then
+  IMAGES=(product-service:jvm product-service:cds product-service:native)
+fi
+URL="http://localhost:${PORT}/v1/products?firstResult=0&maxResults=1"
+
+now_millis() {
+  perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { if (NR % 2) print values[(NR + 1) / 2];
+    else printf "%.3f\n", (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+mkdir -p "${RESULT_DIR}"
+results=()
+for image in "${IMAGES[@]}"; do
+  if ! docker image inspect "${image}" > /dev/null 2>&1; then
+    echo "Skipping ${image}, the image does not exist"
+    continue
+  fi
+  first_request=()
+  started=()
+  for run in $(seq "${RUNS}"); do
+    start=$(now_millis)
+    container=$(docker run -d --rm --cpus "${CPUS}" --memory "${MEMORY}" -p "${PORT}:8080" "${image}")
+    until curl -fs -o /dev/null "${URL}"; do
+      if [ $(($(now_millis) - start)) -gt 120000 ]; then
+        echo "${image} did not answer within 120s" >&2
+        docker logs "${container}" >&2
+        docker stop "${container}" > /dev/null
+        exit 1
+      fi
+      sleep 0.01
+    done
+    first_request+=($(($(now_millis) - start)))
+    started+=("$(docker logs "${container}" 2>&1 \
+      | sed -n 's/.*Started ProductServiceApplication in \([0-9.]*\) seconds.*/\1/p')")
+    docker stop "${container}" > /dev/null
+    echo "${image} run ${run}: first request after ${first_request[-1]}ms, started in ${started[-1]}s"
+  done
+  first_request_median=$(printf '%s\n' "${first_request[@]}" | median)
+  started_median=$(printf '%s\n' "${started[@]}" | median)
+  echo "${image}: median first request after ${first_request_median}ms, started in ${started_median}s"
+  results+=("    {\"image\": \"${image}\", \"firstRequestMillis\": ${first_request_median}, \
+\"startedSeconds\": ${started_median}}")
+done
+
+{
+  echo "{"
+  echo "  \"runs\": ${RUNS}, \"cpus\": \"${CPUS}\", \"memory\": \"${MEMORY}\","
+  echo "  \"images\": ["
+  (IFS=$'\n'; echo "${results[*]}" | sed '$!s/$/,/')
+  echo "  ]"
+  echo "}"
+} > "${RESULT_DIR}/startup.json"
+echo "Result written to ${RESULT_DIR}/startup.json"
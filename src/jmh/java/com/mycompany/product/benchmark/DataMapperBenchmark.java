@@ -0,0 +1,62 @@
+package com.mycompany.product.benchmark;
+
+import com.mycompany.product.mapper.DataMapper;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.openapi.model.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct generated {@link DataMapper} for single products and product lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private Product product;
+
+    private ProductDto productDto;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = ProductFixtures.products(size);
+        product = products.get(0);
+        productDto = DataMapper.INSTANCE.map(product);
+    }
+
+    @Benchmark
+    public ProductDto mapToDto() {
+        return DataMapper.INSTANCE.map(product);
+    }
+
+    @Benchmark
+    public Product mapFromDto() {
+        return DataMapper.INSTANCE.map(productDto);
+    }
+
+    @Benchmark
+    public List<ProductDto> mapList() {
+        return DataMapper.INSTANCE.map(products);
+    }
+}
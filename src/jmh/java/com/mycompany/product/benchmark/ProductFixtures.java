@@ -0,0 +1,51 @@
+package com.mycompany.product.benchmark;
+
+import com.mycompany.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deterministic product data shared by the benchmarks, so results of different runs are comparable.
+ */
+final class ProductFixtures {
+
+    private ProductFixtures() {
+    }
+
+    /**
+     * Creates the given number of products with ids, realistic names, descriptions and prices.
+     *
+     * @param count the number of products
+     * @return the products
+     */
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                .id(new UUID(0x5eedL, i))
+                .name("Product " + i)
+                .description("Description of product " + i + ", a solid oak table in green")
+                .price(BigDecimal.valueOf(100_000L + i * 37L, 2))
+                .version(i % 5)
+                .build());
+        }
+        return products;
+    }
+
+    /**
+     * Creates a new, not yet persisted product.
+     *
+     * @param i the sequence number of the product
+     * @return the product
+     */
+    static Product newProduct(int i) {
+        return Product.builder()
+            .name("Product " + i)
+            .description("Description of product " + i + ", a solid oak table in green")
+            .price(BigDecimal.valueOf(100_000L + i * 37L, 2))
+            .build();
+    }
+}
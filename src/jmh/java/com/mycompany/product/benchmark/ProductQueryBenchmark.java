@@ -0,0 +1,134 @@
+package com.mycompany.product.benchmark;
+
+import com.mycompany.product.ProductServiceApplication;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductCursor;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures price range listings against the size of the catalog on an in-memory H2 database.
+ * <p>
+ * Prices are uniformly distributed between 0 and 1000, so the range 100 to 200 holds a tenth of the catalog.
+ * The first and a deep page of that range are read with keyset pagination over the {@code (price, product_id)}
+ * index and compared with the legacy offset pagination at the same depth, whose cost grows with the catalog.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductQueryBenchmark {
+
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(100);
+
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(200);
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ProductCursor deepCursor;
+
+    private Pageable deepOffsetPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:query-" + catalogSize + ";DB_CLOSE_DELAY=-1",
+                "product.cache.maximum-size=0",
+                "logging.level.root=WARN")
+            .run();
+        productService = context.getBean(ProductService.class);
+        seed(context.getBean(JdbcTemplate.class));
+
+        // Nine tenths into the price range, found once with the offset pagination being compared against
+        int rangeSize = catalogSize / 10;
+        int deepPageNumber = rangeSize * 9 / 10 / PAGE_SIZE;
+        Sort byPrice = Sort.by(ProductSort.PRICE.getParameter(), ProductSort.ID.getParameter());
+        Product lastBeforeDeepPage = productService.getProducts(new ProductQuery(ProductSort.PRICE, MIN_PRICE,
+                MAX_PRICE, null, deepPageNumber * PAGE_SIZE)).getContent().getLast();
+        deepCursor = ProductCursor.after(ProductSort.PRICE, lastBeforeDeepPage);
+        long productsBelowRange = productService.getProducts(new ProductQuery(ProductSort.PRICE, null,
+            MIN_PRICE.subtract(BigDecimal.valueOf(1, 2)), null, catalogSize)).getNumberOfElements();
+        deepOffsetPage = PageRequest.of((int) ((productsBelowRange / PAGE_SIZE) + deepPageNumber), PAGE_SIZE,
+            byPrice);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Product> firstPageInPriceRange() {
+        return productService.getProducts(new ProductQuery(ProductSort.PRICE, MIN_PRICE, MAX_PRICE, null,
+            PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<Product> deepPageInPriceRangeByCursor() {
+        return productService.getProducts(new ProductQuery(ProductSort.PRICE, MIN_PRICE, MAX_PRICE, deepCursor,
+            PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<Product> deepPageByOffset() {
+        return productService.getAllProducts(deepOffsetPage);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < catalogSize; i++) {
+            rows.add(new Object[] {new UUID(random.nextLong(), random.nextLong()), "Product " + i,
+                "Description of product " + i, BigDecimal.valueOf(random.nextInt(100_000), 2)});
+            if (rows.size() == INSERT_BATCH_SIZE || i == catalogSize - 1) {
+                jdbcTemplate.batchUpdate(
+                    "insert into product (product_id, name, description, price, version) values (?, ?, ?, ?, 0)",
+                    rows);
+                rows.clear();
+            }
+        }
+    }
+}
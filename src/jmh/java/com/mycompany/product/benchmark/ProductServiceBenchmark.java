@@ -0,0 +1,125 @@
+package com.mycompany.product.benchmark;
+
+import com.mycompany.product.ProductServiceApplication;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.repository.ProductRepository;
+import com.mycompany.product.service.ProductBatchResult;
+import com.mycompany.product.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the {@link ProductService} CRUD operations end to end through Spring Data JPA and Hibernate
+ * against an in-memory H2 database, with and without the product cache in front of the reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "product.cache.maximum-size=" + (cached ? PRODUCTS : 0),
+                "logging.level.root=WARN")
+            .run();
+        productService = context.getBean(ProductService.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        productRepository.deleteAllInBatch();
+        ids = productService.createProducts(ProductFixtures.products(PRODUCTS)).stream()
+            .map(ProductBatchResult::id)
+            .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    public Slice<Product> getAllProducts() {
+        int page = ThreadLocalRandom.current().nextInt(PRODUCTS / 20);
+        return productService.getAllProducts(PageRequest.of(page, 20));
+    }
+
+    @Benchmark
+    public Slice<Product> getProductsFirstPage() {
+        return productService.getProducts(ProductQuery.of(ProductSort.PRICE, null, 20));
+    }
+
+    @Benchmark
+    public Product createProduct() {
+        return productService.createProduct(ProductFixtures.newProduct(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<Product> updateProduct() {
+        Product product = Product.builder()
+            .id(randomId())
+            .name("Updated product " + sequence.incrementAndGet())
+            .description("Updated description")
+            .price(BigDecimal.TEN)
+            .build();
+        return productService.updateProduct(product);
+    }
+
+    @Benchmark
+    public boolean createAndDeleteProduct() {
+        Product product = productService.createProduct(ProductFixtures.newProduct(sequence.incrementAndGet()));
+        return productService.deleteProduct(product.getId());
+    }
+
+    private UUID randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queries against the {@link InMemoryProductSearchIndex} over a catalog of up to a million
+ * products whose names and descriptions are drawn from a fixed vocabulary.
+ * <p>
+ * Lives in the search package to populate the index through its package-private bulk load.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final String[] COLORS = {"green", "blue", "red", "black", "white", "grey", "yellow", "brown"};
+
+    private static final String[] MATERIALS = {"oak", "pine", "walnut", "steel", "glass", "leather", "linen",
+        "bamboo", "marble", "velvet"};
+
+    private static final String[] ITEMS = {"table", "chair", "desk", "sofa", "lamp", "shelf", "bed", "stool",
+        "cabinet", "mirror", "rug", "bench"};
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"100000", "1000000"})
+    private int products;
+
+    @Param({"walnut desk", "gre sof", "chair", "marb"})
+    private String query;
+
+    private InMemoryProductSearchIndex productSearchIndex;
+
+    @Setup
+    public void setUp() {
+        productSearchIndex = new InMemoryProductSearchIndex(new ProductProperties());
+        Random random = new Random(42);
+        for (int i = 0; i < products; i++) {
+            String item = pick(random, ITEMS);
+            productSearchIndex.load(Product.builder()
+                .id(new UUID(0x5eedL, i))
+                .name(pick(random, COLORS) + " " + pick(random, MATERIALS) + " " + item + " " + i)
+                .description("A " + pick(random, MATERIALS) + " " + item + " in " + pick(random, COLORS))
+                .price(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                .build());
+        }
+    }
+
+    @Benchmark
+    public Slice<UUID> search() {
+        return productSearchIndex.search(query, FIRST_PAGE);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,183 @@
+package com.mycompany.product.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.product.ProductServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the product REST API, run with {@code mvn -Ploadtest verify}.
+ * <p>
+ * Starts the application in-process on H2 or PostgreSQL, or targets an instance that is already running, seeds
+ * the catalog through the batch endpoint and drives a configurable mix of reads and writes with an
+ * {@link OpenModelDriver}, first to warm up, then to measure. Throughput and latency percentiles, corrected for
+ * coordinated omission, are printed and written as JSON to {@code loadtest.result}, next to the latency
+ * distribution of every operation. Given the result of an earlier run as {@code loadtest.baseline}, the run fails
+ * when throughput or p99 latency, overall or of an operation, degraded by more than {@code loadtest.tolerance}.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final int SEED_CHUNK_SIZE = 500;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ConfigurableApplicationContext context = start(settings);
+        int exitCode;
+        try {
+            String baseUrl = (context != null ? "http://localhost:" + port(context) : settings.baseUrl())
+                + "/v1/products";
+            exitCode = run(settings, baseUrl);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestSettings settings, String baseUrl) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        List<UUID> ids = seed(client, objectMapper, baseUrl, settings.products());
+        System.out.printf("Seeded %d products, driving %d requests per second with %s%n", ids.size(),
+            settings.rate(), settings.mix());
+
+        OpenModelDriver driver = new OpenModelDriver(client, baseUrl, ids, settings.mix(), settings.timeout());
+        driver.run(settings.rate(), settings.warmUp());
+        driver.run(settings.rate(), settings.duration());
+        LoadTestResult result = driver.result(settings);
+
+        System.out.printf("%-8s %s%n", "total", result.total());
+        result.operations().forEach((operation, figures) -> System.out.printf("%-8s %s%n",
+            operation.name().toLowerCase(Locale.ROOT), figures));
+        Files.createDirectories(settings.result().toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(settings.result().toFile(), result);
+        driver.writeDistributions(settings.result().toAbsolutePath().getParent());
+        System.out.println("Result written to " + settings.result());
+
+        if (settings.baseline() == null) {
+            return 0;
+        }
+        List<String> regressions = regressions(objectMapper.readTree(settings.baseline().toFile()),
+            objectMapper.valueToTree(result), settings.tolerance());
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Starts the application for the {@code h2} and {@code postgres} targets, on virtual threads with the
+     * {@code virtual-threads} profile if asked to. The {@code postgres} target uses the {@code db} profile, so the database is configured with {@code SPRING_DATASOURCE_URL} and friends, e.g. the
+     * {@code db} service of docker-compose.yml at {@code jdbc:postgresql://localhost:5432/productdb}.
+     *
+     * @return the application context, or {@code null} for the {@code url} target
+     */
+    private static ConfigurableApplicationContext start(LoadTestSettings settings) {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ProductServiceApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN");
+        if ("virtual".equals(settings.threads())) {
+            application.profiles("virtual-threads");
+        } else if (!"platform".equals(settings.threads())) {
+            throw new IllegalArgumentException("Unknown load test threads " + settings.threads()
+                + ", expected platform or virtual");
+        }
+        return switch (settings.target()) {
+            case "h2" -> application
+                .properties("spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1")
+                .run();
+            case "postgres" -> application
+                .profiles("db")
+                .properties("spring.jpa.hibernate.ddl-auto=update")
+                .run();
+            case "url" -> null;
+            default -> throw new IllegalArgumentException("Unknown load test target " + settings.target()
+                + ", expected h2, postgres or url");
+        };
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * Creates the products of the catalog through the batch endpoint, so that seeding works for every target.
+     */
+    private static List<UUID> seed(HttpClient client, ObjectMapper objectMapper, String baseUrl, int products)
+        throws IOException, InterruptedException {
+        List<UUID> ids = new ArrayList<>(products);
+        for (int offset = 0; offset < products; offset += SEED_CHUNK_SIZE) {
+            String body = IntStream.range(offset, Math.min(products, offset + SEED_CHUNK_SIZE))
+                .mapToObj(i -> Operation.product(null, (1 + i % (Operation.MAX_PRICE - 1)) + ".00"))
+                .collect(Collectors.joining(",", "[", "]"));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + ":batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": "
+                    + response.body());
+            }
+            for (JsonNode item : objectMapper.readTree(response.body()).path("results")) {
+                if ("CREATED".equals(item.path("status").asText())) {
+                    ids.add(UUID.fromString(item.path("id").asText()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Compares a result with the baseline, overall and for every operation both runs have.
+     *
+     * @return a description of every figure that degraded by more than the tolerance
+     */
+    static List<String> regressions(JsonNode baseline, JsonNode result, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        compare("total", baseline.path("total"), result.path("total"), tolerance, regressions);
+        for (Map.Entry<String, JsonNode> operation : result.path("operations").properties()) {
+            JsonNode baselineOperation = baseline.path("operations").path(operation.getKey());
+            if (!baselineOperation.isMissingNode()) {
+                compare(operation.getKey(), baselineOperation, operation.getValue(), tolerance, regressions);
+            }
+        }
+        return regressions;
+    }
+
+    private static void compare(String name, JsonNode baseline, JsonNode result, double tolerance,
+                                List<String> regressions) {
+        double baselineThroughput = baseline.path("throughputPerSecond").asDouble();
+        double throughput = result.path("throughputPerSecond").asDouble();
+        if (throughput < baselineThroughput * (1 - tolerance)) {
+            regressions.add(String.format("%s throughput %.1f/s, baseline %.1f/s", name, throughput,
+                baselineThroughput));
+        }
+        double baselineP99 = baseline.path("p99Millis").asDouble();
+        double p99 = result.path("p99Millis").asDouble();
+        if (baselineP99 > 0 && p99 > baselineP99 * (1 + tolerance)) {
+            regressions.add(String.format("%s p99 %.2fms, baseline %.2fms", name, p99, baselineP99));
+        }
+    }
+}
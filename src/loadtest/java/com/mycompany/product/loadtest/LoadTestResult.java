@@ -0,0 +1,44 @@
+package com.mycompany.product.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * The result of a load test run, as written to the result file.
+ *
+ * @param settings   the settings of the run
+ * @param total      the figures of all requests
+ * @param operations the figures of every operation of the mix
+ */
+record LoadTestResult(Map<String, String> settings, Figures total, Map<Operation, Figures> operations) {
+
+    /**
+     * The figures of a set of requests. Latencies are measured from the time the request was scheduled to start,
+     * not from the time it was sent, so a stalled server is charged for all the requests it held up, not just
+     * for the few that were in flight. The service time, from sending to the response, is given for comparison.
+     *
+     * @param requests                the number of requests completed
+     * @param errors                  the number of requests failed, timed out or answered with an error status
+     * @param throughputPerSecond     the requests completed per second of the measurement
+     * @param p50Millis               the median latency
+     * @param p99Millis               the 99th percentile latency
+     * @param p999Millis              the 99.9th percentile latency
+     * @param maxMillis               the highest latency
+     * @param serviceTimeP99Millis    the 99th percentile service time, uncorrected for coordinated omission
+     */
+    record Figures(long requests, long errors, double throughputPerSecond, double p50Millis, double p99Millis,
+                   double p999Millis, double maxMillis, double serviceTimeP99Millis) {
+
+        static Figures of(Histogram latency, Histogram serviceTime, long errors, double seconds) {
+            return new Figures(latency.getTotalCount(), errors, latency.getTotalCount() / seconds,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                millis(serviceTime.getValueAtPercentile(99)));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mycompany.product.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties, which the {@code loadtest} Maven
+ * profile fills in from the properties of the same name.
+ *
+ * @param target    where the application runs: {@code h2} or {@code postgres} to start it in-process on that
+ *                  database, or {@code url} to drive an instance that is already running at {@code baseUrl}
+ * @param baseUrl   the URL of the running instance, only used with the {@code url} target
+ * @param threads   the threads that handle requests in-process: {@code platform}, or {@code virtual} for the
+ *                  {@code virtual-threads} profile
+ * @param products  the number of products seeded before the run
+ * @param rate      the requests started per second, regardless of how fast earlier requests complete
+ * @param warmUp    how long the mix runs before measuring
+ * @param duration  how long the mix is measured
+ * @param mix       the relative weight of every operation
+ * @param timeout   how long a request may take before it counts as an error
+ * @param result    the JSON file the result is written to
+ * @param baseline  the JSON result of an earlier run to compare with, if any
+ * @param tolerance the relative degradation of throughput or p99 latency, compared with the baseline, that fails
+ *                  the run
+ */
+record LoadTestSettings(String target, String baseUrl, String threads, int products, int rate, Duration warmUp, Duration duration,
+                        Map<Operation, Integer> mix, Duration timeout, Path result, Path baseline,
+                        double tolerance) {
+
+    private static final String PREFIX = "loadtest.";
+
+    static LoadTestSettings fromSystemProperties() {
+        String baseline = property("baseline", "");
+        return new LoadTestSettings(
+            property("target", "h2"),
+            property("base-url", "http://localhost:8080"),
+            property("threads", "platform"),
+            Integer.parseInt(property("products", "10000")),
+            Integer.parseInt(property("rate", "500")),
+            DurationStyle.detectAndParse(property("warm-up", "15s")),
+            DurationStyle.detectAndParse(property("duration", "60s")),
+            parseMix(property("mix", "get=70,list=10,search=5,lookup=5,update=5,create=3,prices=2")),
+            DurationStyle.detectAndParse(property("timeout", "10s")),
+            Path.of(property("result", "target/loadtest/result.json")),
+            baseline.isBlank() ? null : Path.of(baseline),
+            Double.parseDouble(property("tolerance", "0.10")));
+    }
+
+    /**
+     * Parses a mix such as {@code get=70,update=30}. Operations left out are not run.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix '" + mix + "' contains no operation");
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the settings as text, for the result file.
+     */
+    Map<String, String> describe() {
+        Map<String, String> description = new LinkedHashMap<>();
+        description.put("target", "url".equals(target) ? baseUrl : target);
+        description.put("threads", "url".equals(target) ? "remote" : threads);
+        description.put("products", String.valueOf(products));
+        description.put("rate", String.valueOf(rate));
+        description.put("warmUp", warmUp.toString());
+        description.put("duration", duration.toString());
+        description.put("mix", mix.toString());
+        description.put("timeout", timeout.toString());
+        return description;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mycompany.product.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Drives the product API with an open workload model: requests start at a fixed arrival rate, each on its own
+ * virtual thread, whether or not earlier requests have completed, like independent clients would send them.
+ * <p>
+ * A closed loop, where every client waits for its response before sending the next request, slows down with
+ * the server and so hides its stalls: the requests that would have been sent during a stall are never sent
+ * and never measured (coordinated omission). Here every request has an intended start time on the arrival
+ * schedule and its latency is measured from that time, so a request delayed by a stall, on the server or in
+ * the driver itself, is charged the full delay. Latencies are recorded in microseconds in HdrHistograms.
+ * </p>
+ */
+final class OpenModelDriver {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final List<UUID> ids;
+
+    private final Operation[] schedule;
+
+    private final Duration timeout;
+
+    private final Map<Operation, Recorded> recorded = new EnumMap<>(Operation.class);
+
+    /**
+     * Creates a driver.
+     *
+     * @param client  the client sending the requests
+     * @param baseUrl the URL of the products resource
+     * @param ids     the ids of the seeded products
+     * @param mix     the relative weight of every operation
+     * @param timeout how long a request may take before it counts as an error
+     */
+    OpenModelDriver(HttpClient client, String baseUrl, List<UUID> ids, Map<Operation, Integer> mix,
+                    Duration timeout) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+        this.schedule = mix.entrySet().stream()
+            .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+            .toArray(Operation[]::new);
+        this.timeout = timeout;
+        mix.keySet().forEach(operation -> recorded.put(operation, new Recorded()));
+    }
+
+    /**
+     * Starts requests at the given rate for the given time and waits for all of them to complete.
+     *
+     * @param rate     the requests started per second
+     * @param duration how long requests are started
+     */
+    void run(int rate, Duration duration) {
+        recorded.values().forEach(Recorded::reset);
+        long intervalNanos = 1_000_000_000L / rate;
+        long count = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < count; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long delay;
+                while ((delay = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                requests.execute(() -> send(operation, intendedStart));
+            }
+        }
+    }
+
+    /**
+     * Returns the figures of the last run.
+     *
+     * @param settings the settings of the run
+     * @return the figures of all requests and of every operation
+     */
+    LoadTestResult result(LoadTestSettings settings) {
+        double seconds = settings.duration().toNanos() / 1e9;
+        Histogram totalLatency = new Histogram(SIGNIFICANT_DIGITS);
+        Histogram totalServiceTime = new Histogram(SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+        Map<Operation, LoadTestResult.Figures> operations = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Recorded> entry : recorded.entrySet()) {
+            Recorded operation = entry.getValue();
+            totalLatency.add(operation.latency);
+            totalServiceTime.add(operation.serviceTime);
+            totalErrors += operation.errors.sum();
+            operations.put(entry.getKey(), LoadTestResult.Figures.of(operation.latency, operation.serviceTime,
+                operation.errors.sum(), seconds));
+        }
+        return new LoadTestResult(settings.describe(),
+            LoadTestResult.Figures.of(totalLatency, totalServiceTime, totalErrors, seconds), operations);
+    }
+
+    /**
+     * Writes the latency distribution of every operation of the last run in the HdrHistogram percentile format,
+     * which can be plotted with the HdrHistogram plotter, in milliseconds.
+     *
+     * @param directory the directory to write {@code <operation>.hgrm} files to
+     * @throws IOException if a file cannot be written
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Recorded> entry : recorded.entrySet()) {
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().latency.outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+    }
+
+    private void send(Operation operation, long intendedStart) {
+        Recorded target = recorded.get(operation);
+        HttpRequest request = operation.request(baseUrl, ids);
+        long sent = System.nanoTime();
+        boolean failed;
+        try {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(timeout)
+                .build(), HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 300;
+        } catch (IOException e) {
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long completed = System.nanoTime();
+        target.latency.recordValue((completed - intendedStart) / 1_000);
+        target.serviceTime.recordValue((completed - sent) / 1_000);
+        if (failed) {
+            target.errors.increment();
+        }
+    }
+
+    /**
+     * The measurements of one operation.
+     */
+    private static final class Recorded {
+
+        private final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+        private final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+        private final LongAdder errors = new LongAdder();
+
+        void reset() {
+            latency.reset();
+            serviceTime.reset();
+            errors.reset();
+        }
+    }
+}
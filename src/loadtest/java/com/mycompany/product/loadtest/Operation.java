@@ -0,0 +1,130 @@
+package com.mycompany.product.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The requests of the load mix, each against a random product of the seeded catalog.
+ */
+enum Operation {
+
+    GET {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomId(ids))).GET().build();
+        }
+    },
+
+    LIST {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            int minPrice = ThreadLocalRandom.current().nextInt(MAX_PRICE);
+            return HttpRequest.newBuilder(URI.create(baseUrl + "?minPrice=" + minPrice + "&maxResults=20"))
+                .GET()
+                .build();
+        }
+    },
+
+    SEARCH {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/search?maxResults=20&q=" + randomWord()))
+                .GET()
+                .build();
+        }
+    },
+
+    LOOKUP {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            String body = IntStream.range(0, 20)
+                .mapToObj(i -> "\"" + randomId(ids) + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+            return json(HttpRequest.newBuilder(URI.create(baseUrl + ":lookup")), "POST", body);
+        }
+    },
+
+    UPDATE {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            UUID id = randomId(ids);
+            return json(HttpRequest.newBuilder(URI.create(baseUrl)), "PUT", product(id, randomPrice()));
+        }
+    },
+
+    CREATE {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            return json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST", product(null, randomPrice()));
+        }
+    },
+
+    PRICES {
+        @Override
+        HttpRequest request(String baseUrl, List<UUID> ids) {
+            String body = IntStream.range(0, 10)
+                .mapToObj(i -> "{\"id\":\"" + randomId(ids) + "\",\"price\":" + randomPrice() + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+            return json(HttpRequest.newBuilder(URI.create(baseUrl + ":prices")), "PUT", body);
+        }
+    };
+
+    static final int MAX_PRICE = 1_000;
+
+    private static final List<String> WORDS = List.of(
+        "oak", "pine", "walnut", "table", "chair", "desk", "shelf", "lamp", "green", "black", "white", "round");
+
+    /**
+     * Builds a request of this operation.
+     *
+     * @param baseUrl the URL of the products resource, e.g. {@code http://localhost:8080/v1/products}
+     * @param ids     the ids of the seeded products
+     * @return the request
+     */
+    abstract HttpRequest request(String baseUrl, List<UUID> ids);
+
+    static Operation fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the JSON of a product with a name and description made of catalog words, so searches find it.
+     *
+     * @param id    the id of the product to update, or {@code null} to create one
+     * @param price the price of the product
+     * @return the ProductDto as JSON
+     */
+    static String product(UUID id, String price) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String words = randomWord() + " " + randomWord() + " " + randomWord();
+        return "{" + (id != null ? "\"id\":\"" + id + "\"," : "")
+            + "\"name\":\"Product " + random.nextInt(1_000_000) + "\","
+            + "\"description\":\"A " + words + "\","
+            + "\"price\":" + price + "}";
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static UUID randomId(List<UUID> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static String randomWord() {
+        return WORDS.get(ThreadLocalRandom.current().nextInt(WORDS.size()));
+    }
+
+    private static String randomPrice() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return (1 + random.nextInt(MAX_PRICE - 1)) + "." + random.nextInt(10) + random.nextInt(10);
+    }
+}
@@ -1,9 +1,14 @@
 package com.mycompany.product;
 
+import com.mycompany.product.config.ProductRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(ProductRuntimeHints.class)
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
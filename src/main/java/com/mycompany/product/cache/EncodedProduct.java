@@ -0,0 +1,11 @@
+package com.mycompany.product.cache;
+
+/**
+ * The {@code EncodedProduct} record holds the response encodings of one product version, ready to be written.
+ * The arrays are shared by all requests and must not be modified.
+ *
+ * @param json the ProductDto encoded as JSON
+ * @param gzip the gzip compressed JSON, or {@code null} if compression is disabled
+ */
+public record EncodedProduct(byte[] json, byte[] gzip) {
+}
@@ -0,0 +1,130 @@
+package com.mycompany.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.mapper.DataMapper;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.openapi.model.ProductDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code EncodedProductCache} keeps the JSON encoding of product versions, so hot products are answered
+ * without mapping them to a DTO and serializing them again.
+ * <p>
+ * Entries are keyed by id and {@code @Version}. The encoding of a version never changes, so entries are never
+ * invalidated: an update creates a new version, whose encoding is cached on its first read, while the
+ * outdated one is no longer asked for and leaves the cache after {@code expire-after-access}. Callers must
+ * therefore look up the current version first, for instance through the {@link ProductCache}.
+ * </p>
+ * <p>
+ * The cache is bounded by the bytes of its encodings, {@code maximum-size}, with Caffeine's frequency aware
+ * eviction. When {@code gzip} is enabled, a compressed copy is kept as well. Statistics are published under
+ * the {@code encodedProducts} cache name and the bytes held as {@code product.cache.encoded.bytes}.
+ * </p>
+ */
+@Component
+public class EncodedProductCache {
+
+    /**
+     * Approximate bytes taken by an entry besides its encodings: the key, the record and the array headers.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final Cache<Key, EncodedProduct> cache;
+
+    private final ObjectWriter writer;
+
+    private final boolean enabled;
+
+    private final boolean gzip;
+
+    public EncodedProductCache(ProductProperties properties, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        ProductProperties.EncodedCache settings = properties.getEncodedCache();
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(settings.getMaximumSize().toBytes())
+            .weigher((Key key, EncodedProduct encoded) -> ENTRY_OVERHEAD + encoded.json().length
+                + (encoded.gzip() != null ? encoded.gzip().length : 0))
+            .expireAfterAccess(settings.getExpireAfterAccess())
+            .recordStats()
+            .build();
+        this.writer = objectMapper.writerFor(ProductDto.class);
+        this.enabled = settings.getMaximumSize().toBytes() > 0;
+        this.gzip = settings.isGzip();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "encodedProducts");
+        Gauge.builder("product.cache.encoded.bytes", cache,
+                c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+            .description("Bytes of encoded products held by the cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether encodings are cached, so that serving them is worth it.
+     *
+     * @return false if the memory budget is zero
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached encoding of the given product version.
+     *
+     * @param id      the UUID of the product
+     * @param version the current version of the product
+     * @return an Optional containing the encoding, or empty if this version is not cached
+     */
+    public Optional<EncodedProduct> get(UUID id, long version) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(id, version)));
+    }
+
+    /**
+     * Returns the encoding of the given product, encoding and caching it if this version is not cached yet.
+     *
+     * @param product the product as read from the database or the read cache
+     * @return the encoding of the product
+     */
+    public EncodedProduct get(Product product) {
+        return cache.get(new Key(product.getId(), product.getVersion()), key -> encode(product));
+    }
+
+    private EncodedProduct encode(Product product) {
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(DataMapper.INSTANCE.map(product));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new EncodedProduct(json, gzip ? compress(json) : null);
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A product version.
+     */
+    private record Key(UUID id, long version) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.mycompany.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.invalidation.ProductInvalidation;
+import com.mycompany.product.invalidation.ProductInvalidationBus;
+import com.mycompany.product.invalidation.ProductInvalidationTransport;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.support.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code ProductCache} is a bounded, in-process near cache of {@link Product} snapshots keyed by id.
+ * <p>
+ * Eviction is frequency aware (Caffeine's W-TinyLFU) and entries expire after a configurable time.
+ * Every entry remembers the {@code @Version} of the product it was built from and a write never replaces
+ * a newer entry with an older one, so a slow reader that loaded a product before a concurrent update cannot
+ * put the stale version back. Deletes leave a tombstone that blocks such stale loads until it expires.
+ * Writes made inside a transaction are applied to the cache only once that transaction has committed.
+ * Hit, miss and eviction statistics are published to Micrometer under the {@code products} cache name.
+ * </p>
+ * <p>
+ * Updates and deletes are also published on the {@link ProductInvalidationBus}, so the caches of the other
+ * instances learn about them. An invalidation received leaves a marker of the new version, which drops any
+ * older copy and, like a tombstone, keeps a slow reader from putting one back; the version itself is cached
+ * by the next read. When the bus reports that invalidations may have been missed, the whole cache is cleared.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    private static final long DELETED = ProductInvalidation.DELETED;
+
+    private final Cache<UUID, CachedProduct> cache;
+
+    private final ProductInvalidationBus invalidationBus;
+
+    public ProductCache(ProductProperties properties, MeterRegistry meterRegistry,
+                        ProductInvalidationBus invalidationBus) {
+        ProductProperties.Cache settings = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getExpireAfterWrite())
+            .recordStats()
+            .build();
+        this.invalidationBus = invalidationBus;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        invalidationBus.subscribe(new ProductInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidations(List<ProductInvalidation> invalidations, long sentAtMillis) {
+                invalidations.forEach(ProductCache.this::invalidate);
+            }
+
+            @Override
+            public void onGap() {
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Returns a copy of the cached product with the given id.
+     *
+     * @param id the UUID of the product
+     * @return an Optional containing a detached copy of the product, or empty on a miss or after a delete
+     */
+    public Optional<Product> get(UUID id) {
+        CachedProduct entry = cache.getIfPresent(id);
+        if (entry == null || entry.product() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.product().toBuilder().build());
+    }
+
+    /**
+     * Returns the version of the cached product with the given id, without copying the product.
+     *
+     * @param id the UUID of the product
+     * @return an Optional containing the cached version, or empty on a miss or after a delete
+     */
+    public Optional<Long> getVersion(UUID id) {
+        CachedProduct entry = cache.getIfPresent(id);
+        if (entry == null || entry.product() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.version());
+    }
+
+    /**
+     * Stores a snapshot of the given product unless a newer version is already cached.
+     *
+     * @param product the product as read from the database
+     */
+    public void put(Product product) {
+        CachedProduct entry = new CachedProduct(product.getVersion(), product.toBuilder().build());
+        TransactionCallbacks.afterCommit(() -> store(product.getId(), entry));
+    }
+
+    /**
+     * Stores a snapshot of the given product like {@link #put(Product)} and invalidates the older versions of it
+     * cached by other instances.
+     *
+     * @param product the product as written to the database
+     */
+    public void update(Product product) {
+        put(product);
+        invalidationBus.publish(ProductInvalidation.updated(product));
+    }
+
+    /**
+     * Marks the product with the given id as deleted, here and in the caches of other instances, so that no
+     * version of it is cached anymore.
+     *
+     * @param id the UUID of the deleted product
+     */
+    public void evict(UUID id) {
+        TransactionCallbacks.afterCommit(() -> store(id, new CachedProduct(DELETED, null)));
+        invalidationBus.publish(ProductInvalidation.deleted(id));
+    }
+
+    private void store(UUID id, CachedProduct entry) {
+        cache.asMap().merge(id, entry, (current, next) -> next.version() >= current.version() ? next : current);
+    }
+
+    private void invalidate(ProductInvalidation invalidation) {
+        // A copy of the invalidated version, as cached by the instance that wrote it, is kept
+        CachedProduct marker = new CachedProduct(invalidation.version(), null);
+        cache.asMap().merge(invalidation.id(), marker,
+            (current, next) -> next.version() > current.version() ? next : current);
+    }
+
+    /**
+     * A cached product snapshot, or a tombstone when {@code product} is {@code null}.
+     */
+    private record CachedProduct(long version, Product product) {
+    }
+}
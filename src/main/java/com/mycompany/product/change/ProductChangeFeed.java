@@ -0,0 +1,184 @@
+package com.mycompany.product.change;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.repository.ProductChangeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code ProductChangeFeed} lets consumers of the product change log wait for new changes.
+ * <p>
+ * A long-poll request that finds no new change registers a waiter with the sequence number it has seen.
+ * Instead of every waiter polling the database, a single poller runs every
+ * {@code product.changes.poll-interval}: it has the {@link ProductChangeSequencer} number the changes committed
+ * since, looks up the highest sequence number after the oldest waiter and releases all waiters behind it,
+ * whose requests then read their changes. Since the poller reads the database, changes made by other
+ * instances release waiters just like local ones. The feed also deletes changes older than
+ * {@code product.changes.retention}. A platform timer thread only starts the poll and the purge, which run on
+ * virtual threads, one run of each at a time, so no platform thread waits for the database.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ProductChangeFeed implements SmartLifecycle {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final ProductChangeRepository productChangeRepository;
+
+    private final ProductChangeSequencer productChangeSequencer;
+
+    private final Duration pollInterval;
+
+    private final Duration retention;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    private ScheduledExecutorService timer;
+
+    private ExecutorService workers;
+
+    public ProductChangeFeed(ProductProperties properties, ProductChangeRepository productChangeRepository,
+                             ProductChangeSequencer productChangeSequencer, MeterRegistry meterRegistry) {
+        ProductProperties.Changes settings = properties.getChanges();
+        this.productChangeRepository = productChangeRepository;
+        this.productChangeSequencer = productChangeSequencer;
+        this.pollInterval = settings.getPollInterval();
+        this.retention = settings.getRetention();
+        Gauge.builder("product.changes.waiting", waiters, Queue::size)
+            .description("Requests waiting for product changes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Waits for a numbered change after the given sequence number.
+     * The returned future completes on a virtual thread, so dependent actions may block. Cancel it when
+     * the caller stops waiting.
+     *
+     * @param since the last sequence number the caller has seen
+     * @return a future completed once a change after {@code since} can be read
+     */
+    public CompletableFuture<Void> awaitChanges(long since) {
+        Waiter waiter = new Waiter(since, new CompletableFuture<>());
+        waiters.add(waiter);
+        return waiter.ready();
+    }
+
+    /**
+     * Numbers the committed changes and releases the waiters behind the highest sequence number, with one query
+     * for all of them.
+     */
+    void poll() {
+        productChangeSequencer.sequence();
+        waiters.removeIf(waiter -> waiter.ready().isDone());
+        Optional<Long> oldestSince = waiters.stream().map(Waiter::since).min(Long::compare);
+        if (oldestSince.isEmpty()) {
+            return;
+        }
+        productChangeRepository.findLastAfter(oldestSince.get())
+            .ifPresent(last -> waiters.removeIf(waiter -> {
+                if (waiter.since() >= last) {
+                    return false;
+                }
+                waiter.ready().completeAsync(() -> null, workers);
+                return true;
+            }));
+    }
+
+    /**
+     * Deletes the changes that are older than the retention period.
+     */
+    void purge() {
+        int deleted = productChangeRepository.deleteRecordedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} product changes older than {}", deleted, retention);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        ExecutorService currentWorkers = Executors.newVirtualThreadPerTaskExecutor();
+        workers = currentWorkers;
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> runExclusively(currentWorkers, polling, this::poll),
+            pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(() -> runExclusively(currentWorkers, purging, this::purge), 0,
+            PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            workers.shutdown();
+            timer = null;
+            workers = null;
+        }
+        // Waiting requests run into their timeout and answer without changes
+        waiters.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return timer != null;
+    }
+
+    /**
+     * Runs the task on a virtual thread, unless its previous run is still going.
+     */
+    private static void runExclusively(ExecutorService workers, AtomicBoolean running, Runnable task) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    runQuietly(task);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopping
+            running.set(false);
+        }
+    }
+
+    private static void runQuietly(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.error("Product change feed task failed", e);
+        }
+    }
+
+    /**
+     * A request waiting for a change after {@code since}.
+     */
+    private record Waiter(long since, CompletableFuture<Void> ready) {
+    }
+}
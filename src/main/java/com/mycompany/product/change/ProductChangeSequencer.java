@@ -0,0 +1,138 @@
+package com.mycompany.product.change;
+
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductChangeHead;
+import com.mycompany.product.repository.ProductChangeHeadRepository;
+import com.mycompany.product.repository.ProductChangeRepository;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code ProductChangeSequencer} assigns the positions of the product change log in commit order.
+ * <p>
+ * A write records its changes without a sequence number. The sequencer numbers the changes that have committed
+ * since its last run, continuing from the {@link ProductChangeHead}, whose row it locks for the duration of its
+ * transaction. Only one instance numbers changes at a time, reading only committed changes, so a change that
+ * commits later always gets a higher number than every change already visible to consumers, however long its
+ * transaction took and whatever the clocks of the instances say. Consumers that resume after the last number
+ * they have seen therefore never skip a change.
+ * </p>
+ * <p>
+ * Changes that committed between two runs are numbered in the order of their ids, except that the changes of
+ * one product are numbered in the order of their versions, since ids are allocated in blocks per instance. A
+ * full batch also takes the other unnumbered changes of its products, so that no change of a product is
+ * numbered before an earlier one.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductChangeSequencer implements SmartInitializingSingleton {
+
+    /**
+     * The most changes numbered per transaction.
+     */
+    static final int BATCH_SIZE = 1_000;
+
+    private static final Comparator<ProductChange> VERSION_ORDER =
+        Comparator.comparing(ProductChange::getVersion, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ProductChangeRepository productChangeRepository;
+
+    private final ProductChangeHeadRepository productChangeHeadRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates the head of the log if it is missing. Runs once all singletons, including the initialization of
+     * the database schema, are ready and before the web server starts.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (productChangeHeadRepository.existsById(ProductChangeHead.ID)) {
+                    return;
+                }
+                long lastSequence = productChangeRepository.findLastSequence().orElse(0L);
+                productChangeHeadRepository.save(new ProductChangeHead(ProductChangeHead.ID, lastSequence));
+                log.info("Initialized the product change log head at sequence number {}", lastSequence);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("The product change log head was created concurrently by another instance");
+        }
+    }
+
+    /**
+     * Numbers all committed changes that have no sequence number yet.
+     *
+     * @return the number of changes numbered
+     */
+    public int sequence() {
+        int total = 0;
+        int sequenced;
+        do {
+            sequenced = transactionTemplate.execute(status -> sequenceBatch());
+            total += sequenced;
+        } while (sequenced >= BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Assigned sequence numbers to {} product changes", total);
+        }
+        return total;
+    }
+
+    private int sequenceBatch() {
+        // Waits for an instance that is numbering changes, and then sees the changes it numbered
+        ProductChangeHead head = productChangeHeadRepository.findAndLock()
+            .orElseThrow(() -> new IllegalStateException("The product change log head does not exist"));
+        List<ProductChange> changes = inVersionOrder(withEarlierChanges(
+            productChangeRepository.findUnsequenced(PageRequest.of(0, BATCH_SIZE))));
+        long sequence = head.getLastSequence();
+        for (ProductChange change : changes) {
+            change.setSequence(++sequence);
+        }
+        head.setLastSequence(sequence);
+        return changes.size();
+    }
+
+    /**
+     * Adds the unnumbered changes of the products of a full batch that did not fit into it. A batch that is not
+     * full already holds every committed change without a number.
+     */
+    private List<ProductChange> withEarlierChanges(List<ProductChange> changes) {
+        if (changes.size() < BATCH_SIZE) {
+            return changes;
+        }
+        Set<UUID> productIds = changes.stream().map(ProductChange::getProductId).collect(Collectors.toSet());
+        Map<Long, ProductChange> batch = new TreeMap<>();
+        changes.forEach(change -> batch.put(change.getChangeId(), change));
+        productChangeRepository.findUnsequencedOf(productIds)
+            .forEach(change -> batch.putIfAbsent(change.getChangeId(), change));
+        return List.copyOf(batch.values());
+    }
+
+    /**
+     * Reorders the changes of each product by version, a delete last, keeping the positions the changes of the
+     * product take in the given order.
+     */
+    static List<ProductChange> inVersionOrder(List<ProductChange> changes) {
+        Map<UUID, Queue<ProductChange>> byProduct = changes.stream()
+            .sorted(VERSION_ORDER)
+            .collect(Collectors.groupingBy(ProductChange::getProductId, Collectors.toCollection(ArrayDeque::new)));
+        return changes.stream().map(change -> byProduct.get(change.getProductId()).remove()).toList();
+    }
+}
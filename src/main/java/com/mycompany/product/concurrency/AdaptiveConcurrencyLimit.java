@@ -0,0 +1,202 @@
+package com.mycompany.product.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@code AdaptiveConcurrencyLimit} bounds the requests in flight by a limit that follows the observed latency.
+ * <p>
+ * The limit is adjusted once per window of completed requests, by the gradient between the long-term latency,
+ * an exponentially weighted average that stands for the latency without queueing, and the average latency of
+ * the window: as long as the window is within {@code rttTolerance} times the long-term latency the limit grows
+ * by about its square root, beyond that it shrinks in proportion to the latency increase, by at most half.
+ * Changes are smoothed over several windows. A window with a failed request, such as a connection pool
+ * timeout, cuts the limit by a tenth right away, and a window that used less than half of the limit leaves it
+ * as is, since it says nothing about how much more the service could take. A request over the limit is not
+ * queued but rejected at once.
+ * </p>
+ * <p>
+ * The gradient follows the {@code Gradient2} limit of Netflix' concurrency-limits library.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private static final double LONG_RTT_WEIGHT = 0.02;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double rttTolerance;
+
+    private final long windowNanos;
+
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+
+    private double longRttNanos;
+
+    private double lastRttNanos;
+
+    private long windowStart = Long.MIN_VALUE;
+
+    private long windowRttSum;
+
+    private int windowSamples;
+
+    private int windowMaxInFlight;
+
+    private boolean windowDropped;
+
+    /**
+     * Creates a limit.
+     *
+     * @param initialLimit     the limit until the first window completed
+     * @param minLimit         the lowest the limit goes
+     * @param maxLimit         the highest the limit goes
+     * @param rttTolerance     how many times the long-term latency a window may take before the limit shrinks
+     * @param windowNanos      the shortest time between two adjustments of the limit
+     * @param minWindowSamples the fewest completed requests an adjustment is based on
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                                    long windowNanos, int minWindowSamples) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit, got "
+                + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot for a request if fewer requests than the limit are in flight.
+     *
+     * @return whether the request may proceed; if so, its slot must be freed with one of the {@code release}
+     *         methods
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Frees the slot of a completed request and accounts for its latency.
+     *
+     * @param rttNanos how long the request took
+     * @param dropped  whether the request failed for a reason that hints at overload
+     * @param now      the current {@link System#nanoTime()}
+     */
+    public void release(long rttNanos, boolean dropped, long now) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        sample(rttNanos, dropped, inFlightBefore, now);
+    }
+
+    /**
+     * Frees the slot of a request without accounting for its latency, e.g. because it continues asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the current state of the limit.
+     *
+     * @return the limit, the requests in flight, the latencies and the rejected requests
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(limit, inFlight.get(), lastRttNanos / 1e6, longRttNanos / 1e6, rejected.sum());
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void sample(long rttNanos, boolean dropped, int inFlightBefore, long now) {
+        if (windowStart == Long.MIN_VALUE) {
+            windowStart = now;
+        }
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        windowDropped |= dropped;
+        if (now - windowStart < windowNanos || windowSamples < minWindowSamples) {
+            return;
+        }
+
+        double shortRttNanos = (double) windowRttSum / windowSamples;
+        lastRttNanos = shortRttNanos;
+        longRttNanos = longRttNanos == 0
+            ? shortRttNanos
+            : longRttNanos + (shortRttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        // After an overload the long-term latency would take long to come back down, which would keep the
+        // limit too high, so it is pulled towards the current latency faster
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double newLimit;
+        if (windowDropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else if (windowMaxInFlight < estimatedLimit / 2) {
+            newLimit = estimatedLimit;
+        } else {
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - SMOOTHING) + (estimatedLimit * gradient + queueSize) * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    /**
+     * The state of a limit.
+     *
+     * @param limit           the requests allowed in flight
+     * @param inFlight        the requests in flight
+     * @param rttMillis       the average latency of the last window
+     * @param noLoadRttMillis the long-term latency the window latency is compared with
+     * @param rejected        the requests rejected so far
+     */
+    public record Snapshot(int limit, int inFlight, double rttMillis, double noLoadRttMillis, long rejected) {
+    }
+}
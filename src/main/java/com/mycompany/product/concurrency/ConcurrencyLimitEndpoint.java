@@ -0,0 +1,26 @@
+package com.mycompany.product.concurrency;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code concurrencylimits} showing the adaptive concurrency limit of every API operation: the
+ * requests allowed and in flight, the recent and the long-term latency and the requests rejected so far.
+ */
+@Component
+@Endpoint(id = "concurrencylimits")
+@ConditionalOnProperty(name = "product.concurrency-limit.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ConcurrencyLimitEndpoint {
+
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @ReadOperation
+    public Map<String, ConcurrencyLimitInterceptor.OperationLimit> limits() {
+        return concurrencyLimitInterceptor.limits();
+    }
+}
@@ -0,0 +1,157 @@
+package com.mycompany.product.concurrency;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * The {@code ConcurrencyLimitInterceptor} sheds the API requests an operation cannot take without queueing.
+ * <p>
+ * Every operation, named by its OpenAPI operation id, has an {@link AdaptiveConcurrencyLimit} that follows its
+ * latency: when the database slows down, the latency rises and the limit shrinks, and requests over the limit
+ * are rejected at once with {@code 503 Service Unavailable} and {@code Retry-After}, so that the requests that
+ * are admitted still complete in time instead of all of them timing out behind the connection pool. Reads and
+ * writes take their bounds from separate buckets, {@code product.concurrency-limit.read} and {@code write}. A
+ * request counts as failed for the limit when it ends with an exception or a 5xx status.
+ * </p>
+ * <p>
+ * The limits are published as {@code product.concurrency.limit}, {@code product.concurrency.inflight} and
+ * {@code product.concurrency.rejected}, tagged with the {@code operation} and its {@code bucket}, and on the
+ * {@code concurrencylimits} actuator endpoint.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".admitted";
+
+    private final ProductProperties.ConcurrencyLimit settings;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Bucketed> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(ProductProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getConcurrencyLimit();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+        throws IOException {
+        // Only the initial dispatch is limited, not the dispatches that complete an asynchronous request
+        if (!(handler instanceof HandlerMethod handlerMethod)
+            || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String operation = handlerMethod.getMethod().getName();
+        if (settings.getExcludedOperations().contains(operation)) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(operation, name -> create(name, request)).limit();
+        if (!limit.tryAcquire()) {
+            log.warn("Rejecting {} {}: {} is at its concurrency limit of {}", request.getMethod(),
+                request.getRequestURI(), operation, limit.getLimit());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, settings.getRetryAfter().toSeconds())));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return false;
+        }
+        request.setAttribute(ADMITTED_ATTRIBUTE, new Admitted(limit, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The time an asynchronous request takes is not the time it spends on the database
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            admitted.limit().release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            long now = System.nanoTime();
+            boolean dropped = ex != null || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+            admitted.limit().release(now - admitted.start(), dropped, now);
+        }
+    }
+
+    /**
+     * Returns the current state of the limit of every operation that was requested so far.
+     *
+     * @return the limits by operation
+     */
+    public Map<String, OperationLimit> limits() {
+        Map<String, OperationLimit> snapshots = new TreeMap<>();
+        limits.forEach((operation, bucketed) ->
+            snapshots.put(operation, new OperationLimit(bucketed.bucket(), bucketed.limit().snapshot())));
+        return snapshots;
+    }
+
+    private Bucketed create(String operation, HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        boolean read = method == HttpMethod.GET || method == HttpMethod.HEAD
+            || settings.getReadOperations().contains(operation);
+        String bucket = read ? "read" : "write";
+        ProductProperties.ConcurrencyLimit.Limit bounds = read ? settings.getRead() : settings.getWrite();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(bounds.getInitialLimit(), bounds.getMinLimit(),
+            bounds.getMaxLimit(), settings.getRttTolerance(), settings.getWindow().toNanos(),
+            settings.getMinWindowSamples());
+
+        Tags tags = Tags.of("operation", operation, "bucket", bucket);
+        Gauge.builder("product.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+            .description("Requests of the operation allowed in flight")
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("product.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+            .description("Requests of the operation in flight")
+            .tags(tags)
+            .register(meterRegistry);
+        FunctionCounter.builder("product.concurrency.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+            .description("Requests of the operation rejected because it was at its concurrency limit")
+            .tags(tags)
+            .register(meterRegistry);
+        return new Bucketed(bucket, limit);
+    }
+
+    /**
+     * The state of the limit of an operation.
+     *
+     * @param bucket the bucket the bounds of the limit come from, {@code read} or {@code write}
+     * @param limit  the state of the limit
+     */
+    public record OperationLimit(String bucket, AdaptiveConcurrencyLimit.Snapshot limit) {
+    }
+
+    private record Bucketed(String bucket, AdaptiveConcurrencyLimit limit) {
+    }
+
+    private record Admitted(AdaptiveConcurrencyLimit limit, long start) {
+    }
+}
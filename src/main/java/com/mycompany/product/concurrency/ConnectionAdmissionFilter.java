@@ -0,0 +1,128 @@
+package com.mycompany.product.concurrency;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * The {@code ConnectionAdmissionFilter} bounds the number of API requests that run concurrently.
+ * <p>
+ * With virtual threads every request gets its own thread, so the Tomcat thread pool no longer limits how
+ * many requests queue up for a database connection. This filter restores that limit in front of the
+ * persistence path: a request waits a short, bounded time for a permit and is rejected with
+ * {@code 503 Service Unavailable} and {@code Retry-After} when none frees up, instead of piling up behind
+ * the connection pool until it times out. Only {@code /v1/} API requests are subject to admission. An
+ * asynchronous request, such as the streamed export, keeps its permit until its response is complete.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true")
+public class ConnectionAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH_PREFIX = "/v1/";
+
+    private final Semaphore permits;
+
+    private final long maxWaitNanos;
+
+    private final Counter rejectedRequests;
+
+    public ConnectionAdmissionFilter(ProductProperties properties, MeterRegistry meterRegistry) {
+        ProductProperties.Admission settings = properties.getAdmission();
+        this.permits = new Semaphore(settings.getMaxConcurrentRequests(), true);
+        this.maxWaitNanos = settings.getMaxWait().toNanos();
+        this.rejectedRequests = Counter.builder("product.admission.rejected")
+            .description("API requests rejected because no admission permit became available in time")
+            .register(meterRegistry);
+        Gauge.builder("product.admission.available", permits, Semaphore::availablePermits)
+            .description("Admission permits currently available")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            log.warn("Rejecting {} {}: no admission permit available", request.getMethod(), request.getRequestURI());
+            rejectedRequests.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // A streamed or deferred response is still being produced, the permit is kept until it is done
+                request.getAsyncContext().addListener(new PermitRelease());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once, whichever of completion, error or timeout comes first,
+     * and follows the request into a further asynchronous cycle.
+     */
+    private final class PermitRelease implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
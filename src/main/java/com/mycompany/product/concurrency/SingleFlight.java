@@ -0,0 +1,131 @@
+package com.mycompany.product.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * A {@code SingleFlight} collapses concurrent loads of the same key into one.
+ * <p>
+ * The first caller for a key runs the load on its own thread; callers arriving while it is in flight wait for
+ * its outcome instead of running the same query again, so a burst of misses for a popular key costs one
+ * database connection rather than one per request. A failed load is rethrown to every waiting caller and is
+ * not remembered: the next caller starts a new load. A caller waits at most the configured timeout and then
+ * gives up with a {@link QueryTimeoutException}, leaving the load to finish for the others.
+ * </p>
+ * <p>
+ * Loads are counted in {@code product.singleflight.loads}, tagged with the flight name and the
+ * {@code outcome}: {@code executed} for the loads run, {@code joined} for the loads collapsed into one
+ * already in flight.
+ * </p>
+ *
+ * @param <K> the type of the keys, which must implement {@code equals} and {@code hashCode}
+ * @param <V> the type of the loaded values
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final Duration timeout;
+
+    private final UnaryOperator<V> copier;
+
+    private final Counter executedLoads;
+
+    private final Counter joinedLoads;
+
+    private final Counter timeouts;
+
+    /**
+     * Creates a single flight.
+     *
+     * @param name          the name of the flight, used to tag its metrics
+     * @param timeout       how long a caller waits for a load started by another caller
+     * @param copier        copies the loaded value for every caller that joined the load, so that no two callers
+     *                      share a mutable value
+     * @param meterRegistry the registry of the metrics
+     */
+    public SingleFlight(String name, Duration timeout, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.copier = copier;
+        this.executedLoads = loads("executed", meterRegistry);
+        this.joinedLoads = loads("joined", meterRegistry);
+        this.timeouts = Counter.builder("product.singleflight.timeouts")
+            .description("Callers that gave up waiting for a load in flight")
+            .tag("flight", name)
+            .register(meterRegistry);
+        Gauge.builder("product.singleflight.inflight", flights, ConcurrentMap::size)
+            .description("Loads currently in flight")
+            .tag("flight", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Loads the value of the given key, or waits for the load of that key already in flight.
+     *
+     * @param key    the key of the value
+     * @param loader loads the value, on the calling thread, if no load of the key is in flight
+     * @return the loaded value
+     * @throws QueryTimeoutException if the load in flight did not complete within the timeout
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            joinedLoads.increment();
+            return copier.apply(await(key, inFlight));
+        }
+        executedLoads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Load of " + name + " " + key + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new QueryTimeoutException("Load of " + name + " " + key + " did not complete within " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for the load of " + name + " " + key);
+        }
+    }
+
+    private Counter loads(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("product.singleflight.loads")
+            .description("Loads run, or collapsed into a load of the same key already in flight")
+            .tag("flight", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
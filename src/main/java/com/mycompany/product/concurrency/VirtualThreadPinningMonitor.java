@@ -0,0 +1,84 @@
+package com.mycompany.product.concurrency;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code VirtualThreadPinningMonitor} reports virtual threads that stay pinned to their carrier thread.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block or a native frame cannot unmount and
+ * holds its carrier, which quietly turns the virtual-thread mode back into a small platform thread pool.
+ * This monitor listens to the JDK Flight Recorder {@code jdk.VirtualThreadPinned} event, logs the blocking
+ * stack of every pin longer than the configured threshold and counts it in
+ * {@code product.virtual-threads.pinned}, so a JDBC driver, pool or Hibernate upgrade that reintroduces
+ * pinning is caught in testing.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int REPORTED_FRAMES = 8;
+
+    private final Duration threshold;
+
+    private final Counter pinnedThreads;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(ProductProperties properties, MeterRegistry meterRegistry) {
+        this.threshold = properties.getPinningMonitor().getThreshold();
+        this.pinnedThreads = Counter.builder("product.virtual-threads.pinned")
+            .description("Virtual threads pinned to their carrier for longer than the monitor threshold")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+        log.info("Reporting virtual threads pinned for more than {}", threshold);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedThreads.increment();
+        String stack = event.getStackTrace() == null ? "unavailable" : event.getStackTrace().getFrames().stream()
+            .limit(REPORTED_FRAMES)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warn("Virtual thread pinned to its carrier for {} ms:{}", event.getDuration().toMillis(), stack);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+}
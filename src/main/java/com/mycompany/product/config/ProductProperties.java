@@ -0,0 +1,530 @@
+package com.mycompany.product.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * The {@code ProductProperties} class holds the tunable settings of the product service,
+ * bound from the {@code product.*} configuration properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "product")
+public class ProductProperties {
+
+    /**
+     * Settings of the in-process product read cache.
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * Settings of the cache of encoded product responses.
+     */
+    private final EncodedCache encodedCache = new EncodedCache();
+
+    /**
+     * Settings of the batch write endpoints.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * Settings of the catalog export.
+     */
+    private final Export export = new Export();
+
+    /**
+     * Settings of the admission control in front of the persistence path.
+     */
+    private final Admission admission = new Admission();
+
+    /**
+     * Settings of the adaptive concurrency limits of the API operations.
+     */
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    /**
+     * Settings of the virtual thread pinning monitor.
+     */
+    private final PinningMonitor pinningMonitor = new PinningMonitor();
+
+    /**
+     * Settings of the product search.
+     */
+    private final Search search = new Search();
+
+    /**
+     * Settings of the multi-get lookup.
+     */
+    private final Lookup lookup = new Lookup();
+
+    /**
+     * Settings of the product counter.
+     */
+    private final Count count = new Count();
+
+    /**
+     * Settings of the price update endpoint.
+     */
+    private final PriceUpdates priceUpdates = new PriceUpdates();
+
+    /**
+     * Settings of the product change feed.
+     */
+    private final Changes changes = new Changes();
+
+    /**
+     * Settings of the read replicas.
+     */
+    private final Replicas replicas = new Replicas();
+
+    /**
+     * Settings of the coalescing of concurrent identical reads.
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Settings of the invalidation of the read caches of all instances.
+     */
+    private final Invalidation invalidation = new Invalidation();
+
+    /**
+     * Settings of the in-process product read cache.
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * The maximum number of products kept in the cache. Zero disables caching.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long an entry stays in the cache after it was written.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of the cache of encoded product responses.
+     */
+    @Data
+    public static class EncodedCache {
+
+        /**
+         * The memory budget of the encoded products, counted in bytes of JSON and gzip. Zero disables the cache.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+        /**
+         * How long an encoded product is kept after it was last served. Encodings of outdated versions are
+         * never served again and leave the cache once this time passes, if not evicted before.
+         */
+        private Duration expireAfterAccess = Duration.ofMinutes(10);
+
+        /**
+         * Whether a gzip compressed copy is kept as well, served to clients accepting the gzip encoding.
+         */
+        private boolean gzip = false;
+    }
+
+    /**
+     * Settings of the batch write endpoints.
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * The number of items written per transaction. JDBC batching groups the statements of a chunk
+         * further according to {@code hibernate.jdbc.batch_size}.
+         */
+        private int chunkSize = 500;
+    }
+
+    /**
+     * Settings of the catalog export.
+     */
+    @Data
+    public static class Export {
+
+        /**
+         * The number of rows fetched from the database cursor per round trip.
+         */
+        private int fetchSize = 500;
+    }
+
+    /**
+     * Settings of the admission control in front of the persistence path.
+     */
+    @Data
+    public static class Admission {
+
+        /**
+         * Whether API requests must obtain a permit before they are processed.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of API requests processed concurrently. Should be a small multiple of the
+         * connection pool size.
+         */
+        private int maxConcurrentRequests = 60;
+
+        /**
+         * How long a request waits for a permit before it is rejected with 503.
+         */
+        private Duration maxWait = Duration.ofMillis(200);
+    }
+
+    /**
+     * Settings of the adaptive concurrency limits of the API operations.
+     */
+    @Data
+    public static class ConcurrencyLimit {
+
+        /**
+         * Whether every API operation gets a concurrency limit that adapts to its latency.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The limits of the operations that only read.
+         */
+        private final Limit read = new Limit(20, 4, 200);
+
+        /**
+         * The limits of the operations that write. Writes hold their connection longer and contend for locks, so
+         * they are limited separately and lower, and a write overload does not starve the reads.
+         */
+        private final Limit write = new Limit(10, 2, 50);
+
+        /**
+         * The operations, besides the GET operations, that only read, such as the POST of a multi-get lookup.
+         */
+        private Set<String> readOperations = new HashSet<>(Set.of("lookupProducts"));
+
+        /**
+         * The operations that are not limited, because they stream or long-poll and so take much longer than
+         * their database work.
+         */
+        private Set<String> excludedOperations = new HashSet<>(Set.of("exportProducts", "getProductChanges"));
+
+        /**
+         * How many times the long-term latency of an operation its recent latency may reach before the limit
+         * shrinks.
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * The shortest time between two adjustments of a limit.
+         */
+        private Duration window = Duration.ofMillis(200);
+
+        /**
+         * The fewest completed requests an adjustment of a limit is based on.
+         */
+        private int minWindowSamples = 10;
+
+        /**
+         * The Retry-After of the requests rejected with 503 because their operation is at its limit.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * The concurrency limits of a bucket of operations. Every operation has its own limit within these bounds.
+         */
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Limit {
+
+            /**
+             * The limit of an operation before it adapts.
+             */
+            private int initialLimit;
+
+            /**
+             * The lowest the limit of an operation goes.
+             */
+            private int minLimit;
+
+            /**
+             * The highest the limit of an operation goes.
+             */
+            private int maxLimit;
+        }
+    }
+
+    /**
+     * Settings of the virtual thread pinning monitor.
+     */
+    @Data
+    public static class PinningMonitor {
+
+        /**
+         * Whether pinned virtual threads are reported.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The minimum time a virtual thread must be pinned to its carrier before it is reported.
+         */
+        private Duration threshold = Duration.ofMillis(20);
+    }
+
+    /**
+     * Settings of the product search.
+     */
+    @Data
+    public static class Search {
+
+        /**
+         * The index answering search queries.
+         */
+        private Engine engine = Engine.MEMORY;
+
+        /**
+         * The minimum length of a query token to also match longer words starting with it. Shorter tokens
+         * only match whole words, as their prefixes match too many products to be useful.
+         */
+        private int minPrefixLength = 2;
+
+        /**
+         * The indexes available for product search.
+         */
+        public enum Engine {
+
+            /**
+             * An in-process inverted index, rebuilt at startup and maintained by the product service.
+             */
+            MEMORY,
+
+            /**
+             * The PostgreSQL full-text index created by {@code schema-postgresql.sql}.
+             */
+            POSTGRES
+        }
+    }
+
+    /**
+     * Settings of the multi-get lookup.
+     */
+    @Data
+    public static class Lookup {
+
+        /**
+         * The maximum number of ids a single lookup may request.
+         */
+        private int maxIds = 1_000;
+
+        /**
+         * The maximum number of ids bound to one IN-list query. Larger lookups are split into several queries.
+         */
+        private int chunkSize = 500;
+    }
+
+    /**
+     * Settings of the product counter.
+     */
+    @Data
+    public static class Count {
+
+        /**
+         * The number of rows the product count is spread over, so that concurrent creates and deletes rarely
+         * update the same row. Can be raised at any time, lowering it leaves the extra rows unused but counted.
+         */
+        private int stripes = 16;
+
+        /**
+         * How often the count is corrected to a {@code COUNT(*)} of the product table, undoing the drift of writes
+         * that were not counted, such as those of instances running an older release. Zero disables it.
+         */
+        private Duration reconcileInterval = Duration.ofHours(1);
+    }
+
+    /**
+     * Settings of the price update endpoint.
+     */
+    @Data
+    public static class PriceUpdates {
+
+        /**
+         * Whether price updates are accepted into a coalescing buffer and written asynchronously, instead of
+         * being written before the response.
+         */
+        private boolean buffered = false;
+
+        /**
+         * How often the buffered prices are written.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * The number of buffered products that triggers a write before the flush interval elapsed.
+         */
+        private int flushThreshold = 1_000;
+
+        /**
+         * The maximum number of buffered products. Updates that do not fit are rejected with 503.
+         */
+        private int capacity = 50_000;
+    }
+
+    /**
+     * Settings of the product change feed.
+     */
+    @Data
+    public static class Changes {
+
+        /**
+         * How often committed changes are numbered and waiting long-poll requests are checked for new changes,
+         * with a single query for all of them. Changes appear in the feed at most this long after they commit.
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * The longest a request may wait for new changes.
+         */
+        private Duration maxWait = Duration.ofSeconds(60);
+
+        /**
+         * The maximum number of changes returned per request.
+         */
+        private int maxResults = 1_000;
+
+        /**
+         * How long changes are kept. Consumers that fall further behind must resynchronize from the export.
+         */
+        private Duration retention = Duration.ofDays(7);
+    }
+
+    /**
+     * Settings of the read replicas.
+     */
+    @Data
+    public static class Replicas {
+
+        /**
+         * Whether read-only transactions are routed to the replicas. The primary is configured with
+         * {@code spring.datasource.*} as usual.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The replica databases, used in turn.
+         */
+        private List<Endpoint> datasources = new ArrayList<>();
+
+        /**
+         * The maximum number of connections of the pool of each replica.
+         */
+        private int maximumPoolSize = 10;
+
+        /**
+         * How long the reads of a client go to the primary after its last write, so that it sees its own
+         * writes despite the replication lag.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        /**
+         * How often every replica is checked. A replica that fails a check, or hands out no connection, receives
+         * no reads until a later check succeeds.
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long a health check, or a read, waits for a replica to answer or to hand out a connection.
+         */
+        private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+        /**
+         * The connection settings of a replica database.
+         */
+        @Data
+        public static class Endpoint {
+
+            /**
+             * The JDBC URL of the replica.
+             */
+            private String url;
+
+            /**
+             * The login username of the replica.
+             */
+            private String username;
+
+            /**
+             * The login password of the replica.
+             */
+            private String password;
+        }
+    }
+
+    /**
+     * Settings of the coalescing of concurrent identical reads.
+     */
+    @Data
+    public static class SingleFlight {
+
+        /**
+         * Whether concurrent loads of the same product, or of the same page of products, share one database query.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The longest a request waits for a load started by another request before it fails.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings of the invalidation of the read caches of all instances.
+     */
+    @Data
+    public static class Invalidation {
+
+        /**
+         * The channel invalidations are sent to the other instances over.
+         */
+        private Transport transport = Transport.LOOPBACK;
+
+        /**
+         * The maximum number of invalidations waiting to be sent. Invalidations that do not fit are dropped,
+         * leaving the cache entries of other instances to expire.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * How long the listener waits for invalidations before it checks its connection. A lost connection is
+         * noticed, and the cache cleared, within about this time.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long the listener waits before it reconnects after it lost its connection.
+         */
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+
+        /**
+         * The channels available for cache invalidations.
+         */
+        public enum Transport {
+
+            /**
+             * Delivered within this instance only, for a single instance and for tests.
+             */
+            LOOPBACK,
+
+            /**
+             * PostgreSQL {@code NOTIFY} to every instance that {@code LISTEN}s to the database.
+             */
+            POSTGRES
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.mycompany.product.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection the product service needs in a GraalVM native image, beyond what Spring AOT and the GraalVM
+ * reachability metadata of the libraries already cover.
+ * <p>
+ * {@code DataMapper.INSTANCE} is created by MapStruct, which loads the generated {@code DataMapperImpl} by name.
+ * </p>
+ */
+public class ProductRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(TypeReference.of("com.mycompany.product.mapper.DataMapperImpl"),
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.product.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mycompany.product.concurrency.ConcurrencyLimitInterceptor;
+import com.mycompany.product.controller.EncodedJsonHttpMessageConverter;
+import com.mycompany.product.controller.ProductFieldFilter;
+import com.mycompany.product.metrics.PersistenceStatsInterceptor;
+import com.mycompany.product.openapi.model.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration of the product service.
+ * <p>
+ * Besides JSON, the read endpoints answer in CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) when the {@code Accept} header asks for them. Both encode the same
+ * DTOs as the JSON responses, with binary numbers instead of decimal text, which saves internal callers
+ * much of the parsing cost of large pages. The converters are built from the Spring Boot configured
+ * {@link Jackson2ObjectMapperBuilder}, so they share the modules and settings of the JSON mapper, and replace
+ * the defaults at their place behind the JSON converter, so JSON remains the default for any other
+ * {@code Accept} header. Cached product encodings are written as they are by the
+ * {@link EncodedJsonHttpMessageConverter}. All mappers know the {@link ProductFieldFilter}, which writes only
+ * the selected fields of sparse product responses.
+ * </p>
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final PersistenceStatsInterceptor persistenceStatsInterceptor;
+
+    private final ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Shed requests first, so that a rejected request does no other work
+        concurrencyLimitInterceptor.ifAvailable(interceptor ->
+            registry.addInterceptor(interceptor).addPathPatterns("/v1/**"));
+        registry.addInterceptor(persistenceStatsInterceptor).addPathPatterns("/v1/**");
+    }
+
+    @Bean
+    public EncodedJsonHttpMessageConverter encodedJsonHttpMessageConverter() {
+        return new EncodedJsonHttpMessageConverter();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldFilterCustomizer() {
+        return builder -> builder.mixIn(ProductDto.class, ProductFieldFilter.Mixin.class)
+            .filters(ProductFieldFilter.serializeAll());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.mycompany.product.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A response body that is already encoded as JSON, written as is by the {@link EncodedJsonHttpMessageConverter}.
+ * <p>
+ * An array is assembled from the encodings of its elements without copying them, so a page of cached products
+ * costs a few writes instead of a mapping and a serialization per product.
+ * </p>
+ */
+public final class EncodedJson {
+
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    private final List<byte[]> fragments;
+
+    private final int length;
+
+    private EncodedJson(List<byte[]> fragments) {
+        this.fragments = fragments;
+        this.length = fragments.stream().mapToInt(fragment -> fragment.length).sum();
+    }
+
+    /**
+     * Wraps a complete JSON document.
+     *
+     * @param json the encoded document
+     * @return the body
+     */
+    static EncodedJson of(byte[] json) {
+        return new EncodedJson(List.of(json));
+    }
+
+    /**
+     * Assembles a JSON array from its encoded elements.
+     *
+     * @param elements the encoded elements, in array order
+     * @return the body
+     */
+    static EncodedJson array(List<byte[]> elements) {
+        List<byte[]> fragments = new ArrayList<>(elements.size() * 2 + 1);
+        fragments.add(ARRAY_START);
+        for (byte[] element : elements) {
+            if (fragments.size() > 1) {
+                fragments.add(ARRAY_SEPARATOR);
+            }
+            fragments.add(element);
+        }
+        fragments.add(ARRAY_END);
+        return new EncodedJson(fragments);
+    }
+
+    /**
+     * Tells whether content negotiation would answer JSON to the given {@code Accept} header, rather than one of
+     * the binary formats the product endpoints offer as well, see {@link ProductEncoding#negotiate(String)}.
+     *
+     * @param accept the {@code Accept} header of the request, if any
+     * @return true if the response is JSON, false if it is a binary format or not acceptable at all
+     */
+    static boolean isPreferred(String accept) {
+        return ProductEncoding.negotiate(accept) == ProductEncoding.JSON;
+    }
+
+    /**
+     * Returns the number of bytes of the body.
+     *
+     * @return the content length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Writes the body.
+     *
+     * @param outputStream the stream of the response
+     * @throws IOException if writing fails
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        for (byte[] fragment : fragments) {
+            outputStream.write(fragment);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.product.controller;
+
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes {@link EncodedJson} response bodies byte for byte, with their content length.
+ * <p>
+ * The product endpoints declare DTO bodies through the generated API, so this converter must come before the
+ * Jackson converter, which would otherwise try to serialize the {@code EncodedJson} itself. Registered as a
+ * bean, Spring Boot puts it in front of the default converters.
+ * </p>
+ */
+public class EncodedJsonHttpMessageConverter extends AbstractHttpMessageConverter<EncodedJson> {
+
+    public EncodedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EncodedJson.class.equals(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected EncodedJson readInternal(Class<? extends EncodedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Encoded JSON is only written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(EncodedJson body, MediaType contentType) {
+        return (long) body.length();
+    }
+
+    @Override
+    protected void writeInternal(EncodedJson body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
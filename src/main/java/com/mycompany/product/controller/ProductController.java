@@ -1,19 +1,64 @@
 package com.mycompany.product.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.product.cache.EncodedProduct;
+import com.mycompany.product.cache.EncodedProductCache;
+import com.mycompany.product.change.ProductChangeFeed;
+import com.mycompany.product.config.ProductProperties;
 import com.mycompany.product.mapper.DataMapper;
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductCount;
+import com.mycompany.product.model.ProductCursor;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductKey;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.model.ProductUpdate;
+import com.mycompany.product.model.ProductVersion;
 import com.mycompany.product.openapi.api.ProductsApi;
+import com.mycompany.product.openapi.model.ProductBatchResponseDto;
+import com.mycompany.product.openapi.model.ProductChangeDto;
 import com.mycompany.product.openapi.model.ProductDto;
+import com.mycompany.product.openapi.model.ProductKeyDto;
+import com.mycompany.product.openapi.model.ProductLookupResponseDto;
+import com.mycompany.product.openapi.model.ProductPriceDto;
+import com.mycompany.product.price.PriceUpdateBuffer;
+import com.mycompany.product.service.ProductBatchResult;
+import com.mycompany.product.service.ProductChangesPurgedException;
+import com.mycompany.product.service.ProductLookupResult;
 import com.mycompany.product.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 /**
@@ -26,8 +71,30 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class ProductController implements ProductsApi {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String NEXT_SINCE_HEADER = "X-Next-Since";
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private static final String COUNT_EXACT = "exact";
+
+    private static final String COUNT_ESTIMATED = "estimated";
+
     private final ProductService productService;
 
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<PriceUpdateBuffer> priceUpdateBuffer;
+
+    private final ProductChangeFeed productChangeFeed;
+
+    private final ProductProperties productProperties;
+
+    private final EncodedProductCache encodedProductCache;
+
+    private final HttpServletRequest request;
+
     /**
      * Creates a new product.
      *
@@ -45,13 +112,32 @@ public class ProductController implements ProductsApi {
     /**
      * Deletes a product by its ID.
      *
-     * @param id The UUID of the product to delete.
+     * @param id      The UUID of the product to delete.
+     * @param ifMatch The ETag of the product version to delete, if any.
      * @return ResponseEntity with a 204 No Content status if deletion is successful.
+     *         Returns a 404 Not Found if the product does not exist.
+     *         Returns a 412 Precondition Failed if the product does not have the expected version.
      *         Returns a 400 Bad Request if the UUID is invalid.
      */
     @Override
-    public ResponseEntity<Void> deleteProduct(UUID id) {
-        boolean deleted = productService.deleteProduct(id);
+    public ResponseEntity<Void> deleteProduct(UUID id, String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ifMatch != null ? ProductETag.expectedVersion(ifMatch, id) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("Product with ID: {} does not match If-Match: {}", id, ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        boolean deleted;
+        try {
+            deleted = expectedVersion != null
+                ? productService.deleteProduct(id, expectedVersion)
+                : productService.deleteProduct(id);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Product with ID: {} was not deleted: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         if (deleted) {
             log.info("Product with ID: {} deleted successfully", id);
             return ResponseEntity.noContent().build();
@@ -63,51 +149,329 @@ public class ProductController implements ProductsApi {
     }
 
     /**
-     * Retrieves all products.
+     * Retrieves all products, optionally within a price range.
+     * Without {@code after}, {@code sort} and price bounds the legacy offset pagination, ordered by id, is used.
+     * Otherwise the products are paginated by keyset and the cursor of the next page is returned in the
+     * X-Next-Cursor header. A price range without an explicit sort is ordered by price.
+     * The response carries an ETag of the page. When it matches If-None-Match, only the ids and versions of the
+     * page are queried and a 304 Not Modified is returned without a body.
+     * No total is counted per page. Asked for with {@code count}, the total number of products is read from the
+     * product counter and returned in the X-Total-Count header, unless the listing is restricted to a price range.
+     * With {@code fields}, only the selected columns are read and only the selected fields are written.
+     *
+     * @param firstResult The page index for offset pagination.
+     * @param maxResults  The maximum number of products to return.
+     * @param after       The cursor returned by the previous page, if any.
+     * @param sort        The stable ordering for cursor pagination, if any.
+     * @param minPrice    The lowest price to include, if any.
+     * @param maxPrice    The highest price to include, if any.
+     * @param count       {@code exact} or {@code estimated} to receive the total number of products, if any.
+     * @param fields      The comma separated fields to return, if not all.
+     * @param ifNoneMatch The ETag of the page the client already has, if any.
+     * @return ResponseEntity with a list of ProductDto, its ETag and a 200 OK status.
+     *         Returns a 304 Not Modified if the page did not change.
+     *         Returns a 400 Bad Request if the cursor, sort, price range, count or fields are invalid.
+     */
+    @Override
+    public ResponseEntity<List<ProductDto>> getAllProducts(Integer firstResult, Integer maxResults, String after,
+                                                           String sort, BigDecimal minPrice, BigDecimal maxPrice,
+                                                           String count, String fields, String ifNoneMatch) {
+        if (count != null && !COUNT_EXACT.equals(count) && !COUNT_ESTIMATED.equals(count)) {
+            log.warn("Invalid count: {}", count);
+            return ResponseEntity.badRequest().build();
+        }
+        Set<ProductField> selected;
+        try {
+            selected = ProductField.fromParameter(fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        boolean sparse = ProductField.isSparse(selected);
+        ProductEncoding encoding = negotiatedEncoding();
+        if (after == null && sort == null && minPrice == null && maxPrice == null) {
+            // A stable order keeps offset pages, and the versions queried for them, consistent between requests
+            Pageable pageable = PageRequest.of(firstResult, maxResults, Sort.by(ProductSort.ID.getParameter()));
+            if (ifNoneMatch != null) {
+                Slice<ProductVersion> versions = productService.getProductVersions(pageable);
+                String eTag = ProductETag.ofPage(versions.getContent(), versions.hasNext(), encoding);
+                if (ProductETag.matches(ifNoneMatch, eTag)) {
+                    log.info("Products page {} not modified", firstResult);
+                    return notModified(eTag);
+                }
+            }
+            log.info("Fetching all products");
+            Slice<Product> productSlice = sparse
+                ? productService.getAllProducts(pageable, selected)
+                : productService.getAllProducts(pageable);
+            log.info("Fetched {} products", productSlice.getNumberOfElements());
+            ResponseEntity.BodyBuilder response = ok(pageETag(productSlice, encoding));
+            totalCount(response, count);
+            return productsResponse(response, productSlice.getContent(), selected);
+        }
+
+        ProductQuery query;
+        try {
+            ProductCursor cursor = after != null ? ProductCursor.decode(after) : null;
+            ProductSort productSort = sort != null ? ProductSort.fromParameter(sort)
+                : cursor != null ? cursor.sort()
+                : ProductSort.PRICE;
+            query = new ProductQuery(productSort, minPrice, maxPrice, cursor, maxResults);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor pagination request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (ifNoneMatch != null) {
+            Slice<ProductVersion> versions = productService.getProductVersions(query);
+            String eTag = ProductETag.ofPage(versions.getContent(), versions.hasNext(), encoding);
+            if (ProductETag.matches(ifNoneMatch, eTag)) {
+                log.info("Products for {} not modified", query);
+                return notModified(eTag);
+            }
+        }
+        log.info("Fetching products for {}", query);
+        Slice<Product> productSlice = sparse
+            ? productService.getProducts(query, selected)
+            : productService.getProducts(query);
+        log.info("Fetched {} products", productSlice.getNumberOfElements());
+        ResponseEntity.BodyBuilder response = ok(pageETag(productSlice, encoding));
+        if (productSlice.hasNext()) {
+            Product last = productSlice.getContent().getLast();
+            response.header(NEXT_CURSOR_HEADER, ProductCursor.after(query.sort(), last).encode());
+        }
+        if (minPrice == null && maxPrice == null) {
+            totalCount(response, count);
+        }
+        return productsResponse(response, productSlice.getContent(), selected);
+    }
+
+    /**
+     * Searches products by the words of their name and description.
      *
-     * @return ResponseEntity with a list of ProductDto and a 200 OK status.
+     * @param q           The search query.
+     * @param firstResult The index of the page of ranked results.
+     * @param maxResults  The maximum number of products to return.
+     * @return ResponseEntity with the matching ProductDto list, best match first, and a 200 OK status.
      */
     @Override
-    public ResponseEntity<List<ProductDto>> getAllProducts(Integer firstResult, Integer maxResults) {
-        log.info("Fetching all products");
-        Pageable pageable = PageRequest.of(firstResult, maxResults);
-        Page<Product> productPage = productService.getAllProducts(pageable);
-        log.info("Fetched {} products", productPage.getContent().size());
-        return ResponseEntity.ok(DataMapper.INSTANCE.map(productPage.getContent()));
+    public ResponseEntity<List<ProductDto>> searchProducts(String q, Integer firstResult, Integer maxResults) {
+        log.info("Searching products for: {}", q);
+        Slice<Product> productSlice = productService.searchProducts(q, PageRequest.of(firstResult, maxResults));
+        log.info("Found {} products", productSlice.getNumberOfElements());
+        return productsResponse(ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT), productSlice.getContent());
+    }
+
+    /**
+     * Retrieves many products by their ids in one round trip.
+     *
+     * @param ids The UUIDs of the products to retrieve.
+     * @return ResponseEntity with the found ProductDto list and the missing ids, both in request order,
+     *         and a 200 OK status.
+     *         Returns a 400 Bad Request if too many ids are requested or an id is null.
+     */
+    @Override
+    public ResponseEntity<ProductLookupResponseDto> lookupProducts(List<UUID> ids) {
+        if (ids.contains(null)) {
+            log.warn("Invalid product lookup: null id");
+            return ResponseEntity.badRequest().build();
+        }
+        ProductLookupResult result;
+        try {
+            result = productService.lookupProducts(ids);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid product lookup: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Found {} of {} products", result.products().size(),
+            result.products().size() + result.missing().size());
+        return ResponseEntity.ok(ProductLookupResponseDto.builder()
+            .products(DataMapper.INSTANCE.map(result.products()))
+            .missing(result.missing())
+            .build());
+    }
+
+    /**
+     * Exports the whole catalog as newline-delimited JSON, one ProductDto per line, ordered by id.
+     * The products are streamed from a database cursor while the response is written, so neither the
+     * catalog nor the response is ever held in memory. An interrupted download is resumed by passing the
+     * id of the last product received as {@code after}.
+     *
+     * @param after The id of the last product already received, if any.
+     * @return ResponseEntity streaming the products with a 200 OK status.
+     */
+    @GetMapping(value = "/v1/products/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) UUID after) {
+        log.info("Exporting products after ID: {}", after);
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class);
+        StreamingResponseBody body = outputStream -> productService.exportProducts(after, product -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(DataMapper.INSTANCE.map(product)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the changes of the product change log after the given sequence number, as a JSON array of
+     * ProductChangeDto in sequence order. The sequence number to pass as {@code since} next is returned in the
+     * X-Next-Since header, so consumers sync by delta instead of re-reading the catalog.
+     * When there is no new change and {@code waitSeconds} is given, the request is held open, without holding
+     * a thread, until a change arrives or the wait is over, which then answers an empty array.
+     *
+     * @param since       The last sequence number already received, 0 to start from the beginning of the log.
+     * @param maxResults  The maximum number of changes to return.
+     * @param waitSeconds How long to wait for a change, capped at {@code product.changes.max-wait}.
+     * @return DeferredResult with the changes and a 200 OK status.
+     *         Returns a 400 Bad Request if maxResults is out of range.
+     *         Returns a 410 Gone if changes after since have been deleted by the retention.
+     */
+    @GetMapping(value = "/v1/products/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<List<ProductChangeDto>>> getProductChanges(
+        @RequestParam(defaultValue = "0") long since,
+        @RequestParam(defaultValue = "100") int maxResults,
+        @RequestParam(defaultValue = "0") long waitSeconds) {
+        Slice<ProductChange> changes;
+        try {
+            changes = productService.getProductChanges(since, maxResults);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid product changes request: {}", e.getMessage());
+            DeferredResult<ResponseEntity<List<ProductChangeDto>>> badRequest = new DeferredResult<>();
+            badRequest.setResult(ResponseEntity.badRequest().build());
+            return badRequest;
+        }
+        Duration wait = Duration.ofSeconds(Math.max(waitSeconds, 0));
+        if (wait.compareTo(productProperties.getChanges().getMaxWait()) > 0) {
+            wait = productProperties.getChanges().getMaxWait();
+        }
+        if (changes.hasContent() || wait.isZero()) {
+            DeferredResult<ResponseEntity<List<ProductChangeDto>>> result = new DeferredResult<>();
+            result.setResult(changesResponse(changes.getContent(), since));
+            return result;
+        }
+
+        log.info("Waiting up to {} for product changes after {}", wait, since);
+        DeferredResult<ResponseEntity<List<ProductChangeDto>>> result = new DeferredResult<>(wait.toMillis(),
+            changesResponse(List.of(), since));
+        CompletableFuture<Void> ready = productChangeFeed.awaitChanges(since);
+        ready.thenRun(() -> result.setResult(
+                changesResponse(productService.getProductChanges(since, maxResults).getContent(), since)))
+            .exceptionally(e -> {
+                result.setErrorResult(e);
+                return null;
+            });
+        result.onCompletion(() -> ready.cancel(false));
+        return result;
     }
 
     /**
      * Retrieves a product by its ID.
+     * The response carries the ETag of the product version. When it matches If-None-Match, only the version
+     * of the product is looked up and a 304 Not Modified is returned without a body.
+     * A JSON response is served from the encoded product cache when it holds the current version, which is
+     * looked up first like for If-None-Match, so a hot product is neither mapped nor serialized.
+     * With {@code fields}, only the selected fields are written, and only the selected columns are read when the
+     * product is not cached.
      *
-     * @param id The UUID of the product to retrieve.
-     * @return ResponseEntity with the ProductDto if found, and a 200 OK status.
+     * @param id          The UUID of the product to retrieve.
+     * @param fields      The comma separated fields to return, if not all.
+     * @param ifNoneMatch The ETag of the product version the client already has, if any.
+     * @return ResponseEntity with the ProductDto and its ETag if found, and a 200 OK status.
+     *         Returns a 304 Not Modified if the product did not change.
      *         Returns a 404 Not Found if the product does not exist.
-     *         Returns a 400 Bad Request if the UUID is invalid.
+     *         Returns a 400 Bad Request if the UUID or the fields are invalid.
      */
     @Override
-    public ResponseEntity<ProductDto> getProductById(UUID id) {
-        return productService.getProductById(id)
-            .map(product -> ResponseEntity.ok(DataMapper.INSTANCE.map(product)))
-            .orElseGet(() -> {
+    public ResponseEntity<ProductDto> getProductById(UUID id, String fields, String ifNoneMatch) {
+        Set<ProductField> selected;
+        try {
+            selected = ProductField.fromParameter(fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        boolean sparse = ProductField.isSparse(selected);
+        ProductEncoding encoding = negotiatedEncoding();
+        boolean encoded = !sparse && isEncodedJsonServed();
+        if (ifNoneMatch != null || encoded) {
+            Optional<Long> version = productService.getProductVersion(id);
+            if (version.isEmpty()) {
                 log.warn("Product with ID: {} not found", id);
                 return ResponseEntity.notFound().build();
-            });
+            }
+            String eTag = ProductETag.of(id, version.get(), encoding);
+            String matchedETag = ifNoneMatch != null ? ProductETag.match(ifNoneMatch, eTag) : null;
+            if (matchedETag != null) {
+                log.info("Product with ID: {} not modified", id);
+                return notModified(matchedETag);
+            }
+            Optional<EncodedProduct> encodedProduct = encoded
+                ? encodedProductCache.get(id, version.get())
+                : Optional.empty();
+            if (encodedProduct.isPresent()) {
+                return productResponse(eTag, encodedProduct.get());
+            }
+        }
+        Optional<Product> product = sparse
+            ? productService.getProductById(id, selected)
+            : productService.getProductById(id);
+        if (product.isEmpty()) {
+            log.warn("Product with ID: {} not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = ProductETag.of(product.get().getId(), product.get().getVersion(), encoding);
+        if (encoded) {
+            return productResponse(eTag, encodedProductCache.get(product.get()));
+        }
+        ProductDto productDto = DataMapper.INSTANCE.map(product.get());
+        if (sparse) {
+            return sparseBody(ok(eTag), productDto, selected);
+        }
+        return ok(eTag).body(productDto);
     }
 
     /**
      * Updates an existing product.
+     * When an expected version is given, through the If-Match header or the version of the ProductDto,
+     * the update only succeeds if the stored product still has that version.
      *
      * @param productDto The updated product details.
-     * @return ResponseEntity with the updated ProductDto and a 200 OK status if successful.
+     * @param ifMatch    The ETag of the product version the update is based on, if any.
+     * @return ResponseEntity with the updated ProductDto, its ETag and a 200 OK status if successful.
      *         Returns a 404 Not Found if the product does not exist.
+     *         Returns a 412 Precondition Failed if the product does not have the expected version.
      *         Returns a 400 Bad Request if the UUID is invalid.
      */
     @Override
-    public ResponseEntity<ProductDto> updateProduct(ProductDto productDto) {
+    public ResponseEntity<ProductDto> updateProduct(ProductDto productDto, String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ifMatch != null ? ProductETag.expectedVersion(ifMatch, productDto.getId()) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("Product with ID: {} does not match If-Match: {}", productDto.getId(), ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (expectedVersion == null) {
+            expectedVersion = productDto.getVersion();
+        }
 
         Product product = DataMapper.INSTANCE.map(productDto);
-        return productService.updateProduct(product)
-            .map(updatedProduct -> ResponseEntity.ok(DataMapper.INSTANCE.map(updatedProduct)))
+        Optional<Product> updatedProduct;
+        try {
+            updatedProduct = expectedVersion != null
+                ? productService.updateProduct(product, expectedVersion)
+                : productService.updateProduct(product);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Product with ID: {} was not updated: {}", productDto.getId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return updatedProduct
+            .map(savedProduct -> ResponseEntity.ok()
+                .eTag(ProductETag.of(savedProduct))
+                .body(DataMapper.INSTANCE.map(savedProduct)))
             .orElseGet(() -> {
                 log.warn("Product with ID: {} not found for update", productDto.getId());
                 return ResponseEntity.notFound().build();  // 404 Not Found
@@ -115,4 +479,241 @@ public class ProductController implements ProductsApi {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Creates products in batch.
+     *
+     * @param productDtos The details of the products to create.
+     * @return ResponseEntity with the outcome of every product and a 200 OK status.
+     */
+    @Override
+    public ResponseEntity<ProductBatchResponseDto> createProducts(List<ProductDto> productDtos) {
+        log.info("Creating {} products in batch", productDtos.size());
+        List<Product> products = productDtos.stream().map(DataMapper.INSTANCE::map).toList();
+        return ResponseEntity.ok(toBatchResponse(productService.createProducts(products)));
+    }
+
+    /**
+     * Updates products in batch.
+     * A product carrying a version is only updated if the stored product still has that version.
+     *
+     * @param productDtos The updated product details.
+     * @return ResponseEntity with the outcome of every product and a 200 OK status.
+     */
+    @Override
+    public ResponseEntity<ProductBatchResponseDto> updateProducts(List<ProductDto> productDtos) {
+        log.info("Updating {} products in batch", productDtos.size());
+        List<ProductUpdate> updates = productDtos.stream()
+            .map(productDto -> new ProductUpdate(DataMapper.INSTANCE.map(productDto), productDto.getVersion()))
+            .toList();
+        return ResponseEntity.ok(toBatchResponse(productService.updateProducts(updates)));
+    }
+
+    /**
+     * Sets the prices of many products.
+     * When price updates are buffered, the prices are only accepted here and written by the buffer shortly after.
+     *
+     * @param productPriceDtos The ids and new prices of the products.
+     * @return ResponseEntity with the outcome of every price and a 200 OK status.
+     *         Returns a 202 Accepted if the prices were buffered.
+     *         Returns a 400 Bad Request if a price has no product id.
+     *         Returns a 503 Service Unavailable if the price buffer is full.
+     */
+    @Override
+    public ResponseEntity<ProductBatchResponseDto> updateProductPrices(List<ProductPriceDto> productPriceDtos) {
+        if (productPriceDtos.stream().anyMatch(productPriceDto -> productPriceDto.getId() == null)) {
+            log.warn("Invalid price update: every price needs a product id");
+            return ResponseEntity.badRequest().build();
+        }
+        List<ProductPrice> prices = productPriceDtos.stream()
+            .map(productPriceDto -> new ProductPrice(productPriceDto.getId(), productPriceDto.getPrice()))
+            .toList();
+        PriceUpdateBuffer buffer = priceUpdateBuffer.getIfAvailable();
+        if (buffer == null) {
+            log.info("Updating {} prices in batch", prices.size());
+            return ResponseEntity.ok(toBatchResponse(productService.updatePrices(prices)));
+        }
+        if (!buffer.offer(prices)) {
+            log.warn("Rejecting {} prices: the price buffer is full", prices.size());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        log.info("Buffered {} prices", prices.size());
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Deletes products in batch.
+     * A product key carrying a version is only deleted if the stored product still has that version.
+     *
+     * @param productKeyDtos The ids, and optionally the versions, of the products to delete.
+     * @return ResponseEntity with the outcome of every product and a 200 OK status.
+     */
+    @Override
+    public ResponseEntity<ProductBatchResponseDto> deleteProducts(List<ProductKeyDto> productKeyDtos) {
+        log.info("Deleting {} products in batch", productKeyDtos.size());
+        List<ProductKey> keys = productKeyDtos.stream()
+            .map(productKeyDto -> new ProductKey(productKeyDto.getId(), productKeyDto.getVersion()))
+            .toList();
+        return ResponseEntity.ok(toBatchResponse(productService.deleteProducts(keys)));
+    }
+
+    /**
+     * Answers a read that timed out, typically while waiting for a load of the same product or page started by
+     * another request, with a 503 Service Unavailable and Retry-After, so that the client retries.
+     *
+     * @param e The timeout.
+     * @return ResponseEntity with a 503 Service Unavailable status.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Void> handleQueryTimeout(QueryTimeoutException e) {
+        log.warn("Rejecting {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    /**
+     * Answers a read of the product change log after a sequence number whose successors have been deleted by the
+     * retention with a 410 Gone, so that the consumer re-reads the catalog instead of missing changes. The
+     * X-Next-Since header carries the sequence number to resume after once the catalog has been re-read.
+     *
+     * @param e The rejection.
+     * @return ResponseEntity with a 410 Gone status.
+     */
+    @ExceptionHandler(ProductChangesPurgedException.class)
+    public ResponseEntity<Void> handleProductChangesPurged(ProductChangesPurgedException e) {
+        log.warn("Rejecting {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE)
+            .header(NEXT_SINCE_HEADER, String.valueOf(e.getLastSequence()))
+            .build();
+    }
+
+    private static ResponseEntity<List<ProductChangeDto>> changesResponse(List<ProductChange> changes, long since) {
+        long nextSince = changes.isEmpty() ? since : changes.getLast().getSequence();
+        log.info("Returning {} product changes, next since {}", changes.size(), nextSince);
+        return ResponseEntity.ok()
+            .header(NEXT_SINCE_HEADER, String.valueOf(nextSince))
+            .body(DataMapper.INSTANCE.mapChanges(changes));
+    }
+
+    /**
+     * Tells whether the request is answered with cached JSON encodings, which is the case when the cache is
+     * enabled and content negotiation picks JSON.
+     */
+    private boolean isEncodedJsonServed() {
+        return encodedProductCache.isEnabled() && EncodedJson.isPreferred(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Returns the encoding content negotiation picks for the response. JSON stands in when no encoding is
+     * acceptable, as the request is then rejected with a 406 Not Acceptable anyway.
+     */
+    private ProductEncoding negotiatedEncoding() {
+        ProductEncoding encoding = ProductEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        return encoding != null ? encoding : ProductEncoding.JSON;
+    }
+
+    private ResponseEntity<ProductDto> productResponse(String eTag, EncodedProduct encodedProduct) {
+        if (encodedProduct.gzip() == null) {
+            return encodedJson(ok(eTag), EncodedJson.of(encodedProduct.json()));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT,
+            HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return encodedJson(response.eTag(eTag), EncodedJson.of(encodedProduct.json()));
+        }
+        return encodedJson(response.eTag(ProductETag.gzip(eTag)).header(HttpHeaders.CONTENT_ENCODING, "gzip"),
+            EncodedJson.of(encodedProduct.gzip()));
+    }
+
+    private ResponseEntity<List<ProductDto>> productsResponse(ResponseEntity.BodyBuilder response,
+                                                              List<Product> products, Set<ProductField> fields) {
+        if (ProductField.isSparse(fields)) {
+            return sparseBody(response, DataMapper.INSTANCE.map(products), fields);
+        }
+        return productsResponse(response, products);
+    }
+
+    private ResponseEntity<List<ProductDto>> productsResponse(ResponseEntity.BodyBuilder response,
+                                                              List<Product> products) {
+        if (!isEncodedJsonServed()) {
+            return response.body(DataMapper.INSTANCE.map(products));
+        }
+        List<byte[]> elements = products.stream().map(product -> encodedProductCache.get(product).json()).toList();
+        return encodedJson(response, EncodedJson.array(elements));
+    }
+
+    /**
+     * Answers an already encoded body in place of the DTO declared by the generated API. Spring MVC does not check
+     * the declared body type at runtime, and the {@link EncodedJsonHttpMessageConverter} writes the bytes.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> encodedJson(ResponseEntity.BodyBuilder response, EncodedJson body) {
+        return (ResponseEntity<T>) (ResponseEntity<?>) response.contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Answers a body of which only the selected fields are written, in place of the DTO declared by the generated
+     * API, like {@link #encodedJson}. The Jackson converters unwrap the {@code MappingJacksonValue}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> sparseBody(ResponseEntity.BodyBuilder response, Object body,
+                                                    Set<ProductField> fields) {
+        return (ResponseEntity<T>) (ResponseEntity<?>) response.body(ProductFieldFilter.select(body, fields));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the total number of products, marked with its accuracy, if the client asked for it.
+     */
+    private void totalCount(ResponseEntity.BodyBuilder response, String count) {
+        if (count == null) {
+            return;
+        }
+        ProductCount total = productService.countProducts(COUNT_ESTIMATED.equals(count));
+        response.header(TOTAL_COUNT_HEADER,
+            total.total() + "; accuracy=" + (total.exact() ? COUNT_EXACT : COUNT_ESTIMATED));
+    }
+
+    private static String pageETag(Slice<Product> products, ProductEncoding encoding) {
+        return ProductETag.ofPage(products.getContent().stream().map(ProductVersion::of).toList(),
+            products.hasNext(), encoding);
+    }
+
+    /**
+     * Starts a response in one of the negotiated encodings, which caches must keep apart as they share the URL.
+     */
+    private static ResponseEntity.BodyBuilder ok(String eTag) {
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Answers that the client's copy is current. A copy in the gzip coding varies by Accept-Encoding as well, which
+     * a cache must keep when it refreshes the stored response with the headers of this one.
+     */
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag);
+        return (ProductETag.isGzip(eTag)
+            ? response.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+            : response.varyBy(HttpHeaders.ACCEPT)).build();
+    }
+
+    private static ProductBatchResponseDto toBatchResponse(List<ProductBatchResult> results) {
+        int succeeded = (int) results.stream().filter(ProductBatchResult::successful).count();
+        log.info("Batch processed: {} succeeded, {} failed", succeeded, results.size() - succeeded);
+        return ProductBatchResponseDto.builder()
+            .succeeded(succeeded)
+            .failed(results.size() - succeeded)
+            .results(results.stream().map(DataMapper.INSTANCE::map).toList())
+            .build();
+    }
+}
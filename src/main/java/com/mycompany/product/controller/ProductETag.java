@@ -0,0 +1,173 @@
+package com.mycompany.product.controller;
+
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductVersion;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds and parses the strong ETags of product representations.
+ * <p>
+ * The ETag of a product is derived from its id and {@code @Version}, e.g. {@code "<id>:<version>"}, so it
+ * changes with every committed update and can be compared without loading or serializing the product.
+ * The ETag of a page of products is a digest of the ids and versions of its products, so it changes when
+ * a product of the page is updated or the page gains, loses or reorders products.
+ * </p>
+ * <p>
+ * The JSON, CBOR and Smile encodings of a product or page are different representations served from the same URL,
+ * so their ETags differ by the suffix of the {@link ProductEncoding}, e.g. {@code "<id>:<version>-cbor"}.
+ * The gzip content coding of a JSON product is a representation of its own as well, tagged with a {@code -gzip}
+ * suffix. The version named by an If-Match header is the same whatever encoding its ETag was taken from.
+ * </p>
+ */
+final class ProductETag {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private static final int PAGE_DIGEST_BYTES = 16;
+
+    private ProductETag() {
+    }
+
+    /**
+     * Returns the ETag of the JSON encoding of the given product version.
+     *
+     * @param product the product
+     * @return the quoted ETag
+     */
+    static String of(Product product) {
+        return of(product.getId(), product.getVersion(), ProductEncoding.JSON);
+    }
+
+    /**
+     * Returns the ETag of the given product version.
+     *
+     * @param id       the id of the product
+     * @param version  the version of the product
+     * @param encoding the encoding of the representation
+     * @return the quoted ETag
+     */
+    static String of(UUID id, long version, ProductEncoding encoding) {
+        return "\"" + id + ":" + version + encoding.eTagSuffix() + "\"";
+    }
+
+    /**
+     * Returns the ETag of a page of products.
+     *
+     * @param versions the ids and versions of the products of the page, in page order
+     * @param hasNext  whether another page follows, as that decides the next page link of the response
+     * @param encoding the encoding of the representation
+     * @return the quoted ETag
+     */
+    static String ofPage(List<ProductVersion> versions, boolean hasNext, ProductEncoding encoding) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES);
+        for (ProductVersion version : versions) {
+            buffer.clear();
+            buffer.putLong(version.id().getMostSignificantBits())
+                .putLong(version.id().getLeastSignificantBits())
+                .putLong(version.version());
+            digest.update(buffer.array());
+        }
+        digest.update((byte) (hasNext ? 1 : 0));
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, PAGE_DIGEST_BYTES) + encoding.eTagSuffix() + "\"";
+    }
+
+    /**
+     * Returns the ETag of the gzip content coding of a representation.
+     *
+     * @param eTag the quoted ETag of the representation
+     * @return the quoted ETag of its gzip coding
+     */
+    static String gzip(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Tells whether the given ETag is the one of a gzip content coding.
+     *
+     * @param eTag the quoted ETag
+     * @return {@code true} if the ETag was built by {@link #gzip(String)}
+     */
+    static boolean isGzip(String eTag) {
+        return eTag.endsWith(GZIP_SUFFIX + "\"");
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches the current ETag of a representation, or of its gzip coding.
+     * The weak comparison applies, as required for If-None-Match.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header
+     * @param eTag        the current quoted ETag
+     * @return {@code true} if the client's copy is current and {@code 304 Not Modified} can be returned
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        return match(ifNoneMatch, eTag) != null;
+    }
+
+    /**
+     * Finds the current ETag the client's copy has, as the identity or the gzip coding of a representation.
+     * The weak comparison applies, as required for If-None-Match.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header
+     * @param eTag        the current quoted ETag
+     * @return the given ETag or its {@link #gzip(String)} form, whichever matched, or {@code null} if none did
+     */
+    static String match(String ifNoneMatch, String eTag) {
+        String gzipETag = gzip(eTag);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith(WEAK_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_PREFIX.length());
+            }
+            if (ANY.equals(trimmed) || trimmed.equals(eTag)) {
+                return eTag;
+            }
+            if (trimmed.equals(gzipETag)) {
+                return gzipETag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the version required by an If-Match header for the given product.
+     * Weak ETags never match, as If-Match requires a strong comparison.
+     *
+     * @param ifMatch the value of the If-Match header
+     * @param id      the id of the product being modified
+     * @return the expected version, or {@code null} if the header matches any version ({@code *})
+     * @throws IllegalArgumentException if the header holds no strong ETag of the given product
+     */
+    static Long expectedVersion(String ifMatch, UUID id) {
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (ANY.equals(trimmed)) {
+                return null;
+            }
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                String value = trimmed.substring(1, trimmed.length() - 1);
+                int separator = value.lastIndexOf(':');
+                if (separator > 0 && value.substring(0, separator).equalsIgnoreCase(String.valueOf(id))) {
+                    String version = value.substring(separator + 1);
+                    int suffix = version.indexOf('-');
+                    return Long.parseLong(suffix < 0 ? version : version.substring(0, suffix));
+                }
+            }
+        }
+        throw new IllegalArgumentException("If-Match holds no ETag of product " + id + ": " + ifMatch);
+    }
+}
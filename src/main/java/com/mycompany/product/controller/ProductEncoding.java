@@ -0,0 +1,73 @@
+package com.mycompany.product.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * The encodings in which the read endpoints answer products, all served from the same URL and negotiated by the
+ * {@code Accept} header.
+ * <p>
+ * Each encoding is a representation of its own, so its ETag carries the suffix of the encoding. A client or cache
+ * holding the JSON encoding therefore never revalidates it against the CBOR or Smile one, or the other way round.
+ * </p>
+ */
+enum ProductEncoding {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+
+    private final MediaType mediaType;
+
+    private final String eTagSuffix;
+
+    ProductEncoding(MediaType mediaType, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    /**
+     * Returns the suffix that tells the ETag of this encoding from the ETags of the others.
+     *
+     * @return the suffix, empty for JSON
+     */
+    String eTagSuffix() {
+        return eTagSuffix;
+    }
+
+    /**
+     * Returns the encoding content negotiation answers to the given {@code Accept} header. Mirrors the negotiation
+     * of Spring MVC, which prefers the most specific and highest quality media type and JSON among equals.
+     *
+     * @param accept the {@code Accept} header of the request, if any
+     * @return the encoding of the response, or {@code null} if none is acceptable or the header is malformed
+     */
+    static ProductEncoding negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+        } catch (IllegalArgumentException e) {
+            // Left to the regular negotiation, which rejects the header
+            return null;
+        }
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ProductEncoding encoding : values()) {
+                if (mediaType.isCompatibleWith(encoding.mediaType)) {
+                    return encoding;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mycompany.product.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mycompany.product.model.ProductField;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Serializes only the selected fields of product DTOs, for sparse responses.
+ * <p>
+ * The generated {@code ProductDto} is bound to the {@value #FILTER} property filter through the {@link Mixin},
+ * which is registered with the Spring Boot configured Jackson mappers together with a default filter that
+ * writes every property, so all other responses stay as they are. A sparse response body is wrapped in a
+ * {@link MappingJacksonValue} carrying a filter of the selected fields, which the JSON, CBOR and Smile
+ * converters apply while writing, without an intermediate tree or map per product.
+ * </p>
+ */
+public final class ProductFieldFilter {
+
+    static final String FILTER = "productFields";
+
+    private ProductFieldFilter() {
+    }
+
+    /**
+     * Returns the filter provider of the Jackson mappers, which writes all properties of product DTOs.
+     *
+     * @return the default filter provider
+     */
+    public static FilterProvider serializeAll() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /**
+     * Wraps a response body so that only the selected fields of its product DTOs are written.
+     *
+     * @param body   a product DTO, or a list of them
+     * @param fields the fields to write
+     * @return the wrapped body
+     */
+    static MappingJacksonValue select(Object body, Set<ProductField> fields) {
+        Set<String> properties = fields.stream().map(ProductField::getParameter).collect(Collectors.toSet());
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+            .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        return value;
+    }
+
+    /**
+     * Binds the product DTO to the {@value #FILTER} property filter.
+     */
+    @JsonFilter(FILTER)
+    public abstract static class Mixin {
+    }
+}
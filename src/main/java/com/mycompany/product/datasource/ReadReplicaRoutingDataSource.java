@@ -0,0 +1,203 @@
+package com.mycompany.product.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The {@code ReadReplicaRoutingDataSource} sends read-only transactions to the replicas and everything else to
+ * the primary.
+ * <p>
+ * A connection is taken from a replica when the current transaction is read-only, as declared with
+ * {@code @Transactional(readOnly = true)}, and the request is not pinned to the primary by
+ * {@link ReadYourWrites}. Replicas are used in turn, skipping those marked down. A replica is marked down
+ * when it does not hand out a connection or fails a periodic health check, and up again once a health check
+ * succeeds; without a healthy replica, reads fall back to the primary.
+ * </p>
+ * <p>
+ * The transaction manager asks for a connection when the transaction begins, before it is flagged read-only,
+ * so this data source must be wrapped in a {@link LazyConnectionDataSourceProxy}, which only asks for the
+ * connection when the first statement runs. Connections are counted in {@code product.datasource.connections},
+ * tagged with the {@code target}: {@code primary}, {@code replica}, or {@code fallback} for reads that went to
+ * the primary because no replica was available.
+ * </p>
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements SmartLifecycle, AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Duration healthCheckInterval;
+
+    private final int healthCheckTimeoutSeconds;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter primaryConnections;
+
+    private final Counter replicaConnections;
+
+    private final Counter fallbackConnections;
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration healthCheckInterval,
+                                        Duration healthCheckTimeout, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.healthCheckInterval = healthCheckInterval;
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+        this.primaryConnections = connectionCounter(meterRegistry, "primary");
+        this.replicaConnections = connectionCounter(meterRegistry, "replica");
+        this.fallbackConnections = connectionCounter(meterRegistry, "fallback");
+        Gauge.builder("product.datasource.replicas.healthy", this.replicas,
+                list -> list.stream().filter(Replica::isHealthy).count())
+            .description("Replicas currently receiving reads")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinned()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource().getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        fallbackConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Checks every replica, marking it up or down.
+     */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return healthChecker != null;
+    }
+
+    /**
+     * Closes the connection pools of the primary and the replicas.
+     */
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("product.datasource.connections")
+            .description("Connections handed out, by the database they were taken from")
+            .tag("target", target)
+            .register(meterRegistry);
+    }
+
+    /**
+     * A replica together with its health.
+     */
+    private static final class Replica {
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                log.info("Replica {} is up again", dataSource);
+                healthy = true;
+            }
+        }
+
+        void markDown(SQLException cause) {
+            if (healthy) {
+                log.warn("Replica {} is down, its reads go to the other replicas or the primary: {}", dataSource,
+                    cause != null ? cause.getMessage() : "connection is not valid");
+                healthy = false;
+            }
+        }
+    }
+}
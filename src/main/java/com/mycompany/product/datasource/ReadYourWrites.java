@@ -0,0 +1,40 @@
+package com.mycompany.product.datasource;
+
+/**
+ * The {@code ReadYourWrites} class tells whether the reads of the current request must go to the primary.
+ * <p>
+ * It is set by {@link ReadYourWritesFilter} for requests of clients that wrote recently and read by
+ * {@link ReadReplicaRoutingDataSource}. Work done on other threads, such as the streaming of an export, is not
+ * pinned.
+ * </p>
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Routes all reads of the current thread to the primary until {@link #unpin()}.
+     */
+    static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Lets the reads of the current thread go to the replicas again.
+     */
+    static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * Tells whether the reads of the current thread must go to the primary.
+     *
+     * @return true if the current request belongs to a client that wrote recently
+     */
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
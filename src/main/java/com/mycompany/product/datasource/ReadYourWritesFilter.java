@@ -0,0 +1,85 @@
+package com.mycompany.product.datasource;
+
+import com.mycompany.product.config.ProductProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * The {@code ReadYourWritesFilter} routes the reads of a client to the primary for a while after its writes.
+ * <p>
+ * Replicas lag behind the primary, so a client reading right after its own write could otherwise miss it.
+ * Every write request is answered with a cookie holding the end of the {@code read-your-writes-window}, and
+ * requests presenting an unexpired cookie are pinned to the primary with {@link ReadYourWrites}. The state
+ * lives with the client, so it holds across instances. Only {@code /v1/} API requests are considered.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "product.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String PRIMARY_UNTIL_COOKIE = "product-primary-until";
+
+    private static final String API_PATH_PREFIX = "/v1/";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(ProductProperties properties) {
+        this.window = properties.getReplicas().getReadYourWritesWindow();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (!READ_METHODS.contains(request.getMethod())) {
+            // Set before the chain runs, as the response may be committed by then
+            Cookie cookie = new Cookie(PRIMARY_UNTIL_COOKIE, String.valueOf(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (primaryUntil(request) > now) {
+            ReadYourWrites.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.unpin();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        return Arrays.stream(request.getCookies())
+            .filter(cookie -> PRIMARY_UNTIL_COOKIE.equals(cookie.getName()))
+            .mapToLong(cookie -> {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            })
+            .max()
+            .orElse(0);
+    }
+}
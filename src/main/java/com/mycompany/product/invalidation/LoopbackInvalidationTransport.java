@@ -0,0 +1,37 @@
+package com.mycompany.product.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code LoopbackInvalidationTransport} delivers invalidations within the JVM, to every listener started
+ * on it, on the publishing thread.
+ * <p>
+ * It serves a single instance, which only has to invalidate its own cache. Tests start several listeners,
+ * each standing for an instance, to exercise the invalidation of caches that did not make a change.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "product.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationTransport implements ProductInvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ProductInvalidation invalidation) {
+        long sentAtMillis = System.currentTimeMillis();
+        listeners.forEach(listener -> listener.onInvalidations(List.of(invalidation), sentAtMillis));
+    }
+
+    @Override
+    public void start(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void stop() {
+        listeners.clear();
+    }
+}
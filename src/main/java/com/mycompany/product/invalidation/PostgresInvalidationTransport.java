@@ -0,0 +1,309 @@
+package com.mycompany.product.invalidation;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code PostgresInvalidationTransport} sends invalidations to all instances with PostgreSQL
+ * {@code NOTIFY} on the {@value #CHANNEL} channel, which every instance {@code LISTEN}s to.
+ * <p>
+ * Published invalidations are queued and sent by a single sender thread, as many as fit into one notification
+ * per round trip, over a pooled connection of the primary. The listener thread holds a dedicated connection to
+ * the primary, outside the pool, and waits for notifications on it. When it finds no notification within
+ * {@code product.invalidation.heartbeat-interval} it checks the connection; a lost connection is reopened after
+ * {@code reconnect-delay}, and every new {@code LISTEN} is reported as a gap, since notifications sent while
+ * no connection listened are not delivered later.
+ * </p>
+ * <p>
+ * Invalidations that do not fit into the queue of {@code capacity}, or could not be sent, are dropped and
+ * counted in {@code product.invalidation.dropped}. Every instance numbers its notifications, and after a drop
+ * it skips a number, sending an empty notification if nothing else is waiting to be sent. A receiver reports a
+ * gap when the numbers of an instance skip one, or when the first notification it gets from an instance on its
+ * connection is not the first that instance sent, as the ones before may have been dropped.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements ProductInvalidationTransport {
+
+    static final String CHANNEL = "product_invalidation";
+
+    /**
+     * The most invalidations per notification: an encoded invalidation takes at most 57 bytes and the payload
+     * of a notification is limited to 8000 bytes.
+     */
+    static final int MAX_BATCH = 100;
+
+    private final DataSource listenerDataSource;
+
+    private final JdbcClient jdbcClient;
+
+    private final BlockingQueue<ProductInvalidation> outbox;
+
+    private final Duration heartbeatInterval;
+
+    private final Duration reconnectDelay;
+
+    private final Counter dropped;
+
+    /**
+     * Tells the notifications of this instance from the ones of the other instances.
+     */
+    private final String sender = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    /**
+     * Whether invalidations were dropped since the last notification, which the next one has to reveal.
+     */
+    private final AtomicBoolean lost = new AtomicBoolean();
+
+    /**
+     * The number of the last notification, only used by the sender thread.
+     */
+    private long sequence;
+
+    private volatile boolean running;
+
+    private volatile Connection listenerConnection;
+
+    private Thread listenerThread;
+
+    private Thread senderThread;
+
+    public PostgresInvalidationTransport(ProductProperties properties, DataSourceProperties dataSourceProperties,
+                                         JdbcClient jdbcClient, MeterRegistry meterRegistry) {
+        ProductProperties.Invalidation settings = properties.getInvalidation();
+        this.listenerDataSource = dataSourceProperties.initializeDataSourceBuilder()
+            .type(SimpleDriverDataSource.class)
+            .build();
+        this.jdbcClient = jdbcClient;
+        this.outbox = new ArrayBlockingQueue<>(settings.getCapacity());
+        this.heartbeatInterval = settings.getHeartbeatInterval();
+        this.reconnectDelay = settings.getReconnectDelay();
+        this.dropped = Counter.builder("product.invalidation.dropped")
+            .description("Product invalidations dropped because the queue was full or sending failed")
+            .register(meterRegistry);
+        Gauge.builder("product.invalidation.queued", outbox, BlockingQueue::size)
+            .description("Product invalidations waiting to be sent")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(ProductInvalidation invalidation) {
+        if (!outbox.offer(invalidation)) {
+            lost.set(true);
+            dropped.increment();
+            log.warn("Dropped the invalidation of product {}: {} invalidations are waiting to be sent",
+                invalidation.id(), outbox.size());
+        }
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        running = true;
+        listenerThread = Thread.ofPlatform().daemon().name("product-invalidation-listener")
+            .start(() -> listen(listener));
+        senderThread = Thread.ofPlatform().daemon().name("product-invalidation-sender")
+            .start(this::send);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Connection connection = listenerConnection;
+        if (connection != null) {
+            try {
+                // Ends the wait for notifications
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the invalidation listener connection failed", e);
+            }
+        }
+        try {
+            // The sender sends what is left in the queue before it ends
+            senderThread.join(reconnectDelay.plus(heartbeatInterval).toMillis());
+            listenerThread.join(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send() {
+        List<ProductInvalidation> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !outbox.isEmpty()) {
+            try {
+                ProductInvalidation first = outbox.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (lost.get()) {
+                        // Reveals the drop without waiting for the next invalidation
+                        notify(List.of());
+                    }
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            outbox.drainTo(batch, MAX_BATCH - 1);
+            notify(batch);
+            batch.clear();
+        }
+    }
+
+    private void notify(List<ProductInvalidation> batch) {
+        // A skipped number tells the receivers that invalidations were dropped
+        sequence += lost.getAndSet(false) ? 2 : 1;
+        try {
+            jdbcClient.sql("select pg_notify(?, ?)")
+                .params(CHANNEL, encode(sender, sequence, System.currentTimeMillis(), batch))
+                .query()
+                .singleColumn();
+        } catch (DataAccessException e) {
+            lost.set(true);
+            dropped.increment(batch.size());
+            log.warn("Could not send {} product invalidations", batch.size(), e);
+        }
+    }
+
+    private void listen(Listener listener) {
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for product invalidations on channel {}", CHANNEL);
+                // Nothing sent while no connection listened will arrive
+                listener.onGap();
+                receive(connection, listener);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost the product invalidation channel, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            } finally {
+                listenerConnection = null;
+            }
+        }
+    }
+
+    private void receive(Connection connection, Listener listener) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        // The number of the last notification received from every instance on this connection
+        Map<String, Long> lastSequences = new HashMap<>();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) heartbeatInterval.toMillis());
+            if (notifications == null || notifications.length == 0) {
+                if (!connection.isValid((int) Math.max(1, heartbeatInterval.toSeconds()))) {
+                    throw new SQLException("The connection did not answer within " + heartbeatInterval);
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                try {
+                    Batch batch = decode(notification.getParameter());
+                    Long lastSequence = lastSequences.put(batch.sender(), batch.sequence());
+                    if (batch.sequence() != (lastSequence != null ? lastSequence + 1 : 1)) {
+                        log.warn("Missed product invalidations of instance {} before notification {}",
+                            batch.sender(), batch.sequence());
+                        listener.onGap();
+                    }
+                    if (!batch.invalidations().isEmpty()) {
+                        listener.onInvalidations(batch.invalidations(), batch.sentAtMillis());
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring a malformed product invalidation: {}", notification.getParameter(), e);
+                    listener.onGap();
+                }
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes invalidations as the payload of a notification, e.g. {@code 1f2e3d;42;1718000000000;<id>:3,<id>:7}
+     * for the 42nd notification of the instance {@code 1f2e3d}.
+     */
+    static String encode(String sender, long sequence, long sentAtMillis, List<ProductInvalidation> invalidations) {
+        StringJoiner payload = new StringJoiner(",", sender + ";" + sequence + ";" + sentAtMillis + ";", "");
+        invalidations.forEach(invalidation -> payload.add(invalidation.id() + ":" + invalidation.version()));
+        return payload.toString();
+    }
+
+    /**
+     * Decodes the payload of a notification.
+     *
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    static Batch decode(String payload) {
+        String[] parts = payload.split(";", 4);
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Missing sender, sequence number or send time");
+        }
+        long sequence = Long.parseLong(parts[1]);
+        long sentAtMillis = Long.parseLong(parts[2]);
+        List<ProductInvalidation> invalidations = new ArrayList<>();
+        if (parts[3].isEmpty()) {
+            // Only reveals dropped invalidations
+            return new Batch(parts[0], sequence, sentAtMillis, invalidations);
+        }
+        for (String entry : parts[3].split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Missing version in " + entry);
+            }
+            invalidations.add(new ProductInvalidation(UUID.fromString(entry.substring(0, colon)),
+                Long.parseLong(entry.substring(colon + 1))));
+        }
+        return new Batch(parts[0], sequence, sentAtMillis, invalidations);
+    }
+
+    /**
+     * The invalidations of one notification.
+     *
+     * @param sender        the instance that sent them
+     * @param sequence      the number of the notification among the ones of its instance, from one
+     * @param sentAtMillis  the epoch millisecond at which they were sent
+     * @param invalidations the invalidations, empty if the notification only reveals dropped ones
+     */
+    record Batch(String sender, long sequence, long sentAtMillis, List<ProductInvalidation> invalidations) {
+    }
+}
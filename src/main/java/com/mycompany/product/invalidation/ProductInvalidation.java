@@ -0,0 +1,52 @@
+package com.mycompany.product.invalidation;
+
+import com.mycompany.product.model.Product;
+import java.util.UUID;
+
+/**
+ * The {@code ProductInvalidation} record tells the read caches of all instances that a product changed.
+ * <p>
+ * It carries the version the product has after the change, so that a cache drops only older copies and keeps
+ * a copy of that version or a newer one, whatever order invalidations arrive in. A deleted product has the
+ * version {@link #DELETED}, which is newer than any real version.
+ * </p>
+ *
+ * @param id      the id of the changed product
+ * @param version the version of the product after the change, or {@link #DELETED}
+ */
+public record ProductInvalidation(UUID id, long version) {
+
+    /**
+     * The version of a deleted product.
+     */
+    public static final long DELETED = Long.MAX_VALUE;
+
+    /**
+     * Returns the invalidation of the versions before the given product.
+     *
+     * @param product the product as written
+     * @return the invalidation
+     */
+    public static ProductInvalidation updated(Product product) {
+        return new ProductInvalidation(product.getId(), product.getVersion());
+    }
+
+    /**
+     * Returns the invalidation of all versions of a deleted product.
+     *
+     * @param id the id of the deleted product
+     * @return the invalidation
+     */
+    public static ProductInvalidation deleted(UUID id) {
+        return new ProductInvalidation(id, DELETED);
+    }
+
+    /**
+     * Tells whether the product was deleted.
+     *
+     * @return whether this invalidation is for a deleted product
+     */
+    public boolean isDeleted() {
+        return version == DELETED;
+    }
+}
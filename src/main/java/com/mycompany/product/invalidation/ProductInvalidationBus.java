@@ -0,0 +1,125 @@
+package com.mycompany.product.invalidation;
+
+import com.mycompany.product.support.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code ProductInvalidationBus} keeps the product read caches of all instances coherent.
+ * <p>
+ * A write publishes the new version of every product it changed, once its transaction has committed, and the
+ * configured {@link ProductInvalidationTransport} delivers it to the subscribed caches of every instance,
+ * which drop their older copies. The instance that made the change receives its own invalidations too, which
+ * leave its up-to-date copy in place. When the transport reports a gap, the subscribers must drop everything,
+ * as they may have missed an invalidation.
+ * </p>
+ * <p>
+ * Invalidations are counted in {@code product.invalidation.published} and {@code product.invalidation.received},
+ * gaps in {@code product.invalidation.gaps}, and the time from sending to receiving, subject to the clock skew
+ * between instances, is recorded as {@code product.invalidation.lag}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ProductInvalidationBus implements SmartLifecycle, ProductInvalidationTransport.Listener {
+
+    private final ProductInvalidationTransport transport;
+
+    private final List<ProductInvalidationTransport.Listener> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Counter published;
+
+    private final Counter received;
+
+    private final Counter gaps;
+
+    private final Timer lag;
+
+    private volatile boolean running;
+
+    public ProductInvalidationBus(ProductInvalidationTransport transport, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.published = Counter.builder("product.invalidation.published")
+            .description("Product invalidations published after a committed write")
+            .register(meterRegistry);
+        this.received = Counter.builder("product.invalidation.received")
+            .description("Product invalidations received from any instance")
+            .register(meterRegistry);
+        this.gaps = Counter.builder("product.invalidation.gaps")
+            .description("Times invalidations may have been missed and the caches were cleared")
+            .register(meterRegistry);
+        this.lag = Timer.builder("product.invalidation.lag")
+            .description("Time from sending an invalidation to receiving it")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Publishes an invalidation to all instances once the current transaction has committed, or immediately
+     * without a transaction. Nothing is published if the transaction rolls back.
+     *
+     * @param invalidation the invalidation
+     */
+    public void publish(ProductInvalidation invalidation) {
+        TransactionCallbacks.afterCommit(() -> {
+            transport.publish(invalidation);
+            published.increment();
+        });
+    }
+
+    /**
+     * Subscribes to the invalidations of all instances. Subscribers are called on the thread of the transport
+     * and must not block.
+     *
+     * @param subscriber receives the invalidations and gaps
+     */
+    public void subscribe(ProductInvalidationTransport.Listener subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void onInvalidations(List<ProductInvalidation> invalidations, long sentAtMillis) {
+        received.increment(invalidations.size());
+        lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - sentAtMillis)));
+        subscribers.forEach(subscriber -> subscriber.onInvalidations(invalidations, sentAtMillis));
+    }
+
+    @Override
+    public void onGap() {
+        gaps.increment();
+        log.info("Product invalidations may have been missed, clearing the caches");
+        subscribers.forEach(ProductInvalidationTransport.Listener::onGap);
+    }
+
+    @Override
+    public synchronized void start() {
+        transport.start(this);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        transport.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server and the price update buffer, so that nothing writes without
+     * invalidating.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 8192;
+    }
+}
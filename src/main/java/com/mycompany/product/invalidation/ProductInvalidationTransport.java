@@ -0,0 +1,52 @@
+package com.mycompany.product.invalidation;
+
+import java.util.List;
+
+/**
+ * A {@code ProductInvalidationTransport} carries product invalidations from the instance that made a change to
+ * every instance, including itself.
+ * <p>
+ * Delivery is at most once: an invalidation can be lost, e.g. while a listener reconnects, but the transport
+ * then reports a gap, after which the receiver must assume it missed any invalidation.
+ * </p>
+ */
+public interface ProductInvalidationTransport {
+
+    /**
+     * Sends an invalidation to all instances. Must not block on the network.
+     *
+     * @param invalidation the invalidation, of a committed change
+     */
+    void publish(ProductInvalidation invalidation);
+
+    /**
+     * Starts delivering the invalidations of all instances to the given listener.
+     *
+     * @param listener receives the invalidations
+     */
+    void start(Listener listener);
+
+    /**
+     * Stops sending and delivering invalidations.
+     */
+    void stop();
+
+    /**
+     * Receives the invalidations of a transport.
+     */
+    interface Listener {
+
+        /**
+         * Receives invalidations, in the order they were sent by their instance.
+         *
+         * @param invalidations the invalidations
+         * @param sentAtMillis  the epoch millisecond at which the invalidations were sent
+         */
+        void onInvalidations(List<ProductInvalidation> invalidations, long sentAtMillis);
+
+        /**
+         * Tells that invalidations may have been lost, e.g. because the connection of the listener was down.
+         */
+        void onGap();
+    }
+}
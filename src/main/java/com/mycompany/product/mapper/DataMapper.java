@@ -1,9 +1,14 @@
 package com.mycompany.product.mapper;
 
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.openapi.model.ProductBatchItemDto;
+import com.mycompany.product.openapi.model.ProductChangeDto;
 import com.mycompany.product.openapi.model.ProductDto;
+import com.mycompany.product.service.ProductBatchResult;
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 /**
@@ -44,4 +49,29 @@ public interface DataMapper {
      * @return the mapped Product entity.
      */
     Product map(ProductDto productDto);
+
+    /**
+     * Maps the outcome of a batch item to a ProductBatchItemDto.
+     *
+     * @param result the outcome of the batch item to map.
+     * @return the mapped ProductBatchItemDto object.
+     */
+    ProductBatchItemDto map(ProductBatchResult result);
+
+    /**
+     * Maps an entry of the product change log to a ProductChangeDto.
+     *
+     * @param change the ProductChange entity to map.
+     * @return the mapped ProductChangeDto object.
+     */
+    @Mapping(target = "id", source = "productId")
+    ProductChangeDto map(ProductChange change);
+
+    /**
+     * Maps a list of product change log entries to a list of ProductChangeDto objects.
+     *
+     * @param changes the list of ProductChange entities to map.
+     * @return the mapped list of ProductChangeDto objects.
+     */
+    List<ProductChangeDto> mapChanges(List<ProductChange> changes);
 }
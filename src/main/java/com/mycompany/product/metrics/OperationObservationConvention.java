@@ -0,0 +1,41 @@
+package com.mycompany.product.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds an {@code operation} tag to the {@code http.server.requests} metrics.
+ * <p>
+ * The tag is the name of the handling controller method, which for the API endpoints is the operation id
+ * of the OpenAPI specification, so latencies can be compared per operation even when several operations
+ * share a URI template such as {@code /v1/products}.
+ * </p>
+ */
+@Component
+public class OperationObservationConvention extends DefaultServerRequestObservationConvention {
+
+    static final String OPERATION_TAG = "operation";
+
+    private static final String NO_OPERATION = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of(OPERATION_TAG, operationOf(handler)));
+    }
+
+    /**
+     * Returns the operation name of a request handler.
+     *
+     * @param handler the handler, may be {@code null}
+     * @return the controller method name, or {@code none} if the request was not handled by a controller
+     */
+    static String operationOf(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : NO_OPERATION;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.product.metrics;
+
+/**
+ * The {@code PersistenceStats} class counts the JDBC work done on behalf of the current request.
+ * <p>
+ * The counters are bound to the request thread by {@link PersistenceStatsInterceptor} and fed by the
+ * Hibernate hooks registered in {@link PersistenceStatsHibernateCustomizer}. Those only see entity rows, so the
+ * queries that read projections report their rows with {@link #rowsRead(int)}. Work done outside of a request,
+ * e.g. by scheduled jobs, is not counted.
+ * </p>
+ */
+public final class PersistenceStats {
+
+    private static final ThreadLocal<PersistenceStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long rows;
+
+    private PersistenceStats() {
+    }
+
+    /**
+     * Starts counting for the current thread, discarding any previous counts.
+     */
+    static void start() {
+        CURRENT.set(new PersistenceStats());
+    }
+
+    /**
+     * Stops counting for the current thread.
+     *
+     * @return the counts collected since {@link #start()}, or {@code null} if counting was not started
+     */
+    static PersistenceStats stop() {
+        PersistenceStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /**
+     * Records a SQL statement prepared on the current thread.
+     */
+    static void statementPrepared() {
+        PersistenceStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    /**
+     * Records an entity row loaded on the current thread.
+     */
+    static void rowLoaded() {
+        PersistenceStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows++;
+        }
+    }
+
+    /**
+     * Records rows read on the current thread by a query that loads no entities, such as a projection.
+     *
+     * @param count the number of rows read
+     */
+    public static void rowsRead(int count) {
+        PersistenceStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows += count;
+        }
+    }
+
+    /**
+     * Returns the number of SQL statements prepared.
+     *
+     * @return the statement count
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns the number of rows loaded as entities or read as projections.
+     *
+     * @return the row count
+     */
+    public long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.product.metrics;
+
+import java.util.Map;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the Hibernate hooks feeding {@link PersistenceStats}.
+ * <p>
+ * A {@link StatementInspector} sees every SQL statement Hibernate prepares, including count queries and
+ * the statements of a JDBC batch, and an {@link Interceptor} sees every entity row it loads.
+ * </p>
+ */
+@Component
+public class PersistenceStatsHibernateCustomizer implements HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+            PersistenceStats.statementPrepared();
+            return sql;
+        });
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, new RowCountingInterceptor());
+    }
+
+    private static final class RowCountingInterceptor implements Interceptor {
+
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            PersistenceStats.rowLoaded();
+            return false;
+        }
+    }
+}
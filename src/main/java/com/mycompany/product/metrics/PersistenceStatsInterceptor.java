@@ -0,0 +1,63 @@
+package com.mycompany.product.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Records the JDBC statements and the rows read of every handled request.
+ * <p>
+ * The counts are published as the distribution summaries {@code product.db.statements} and
+ * {@code product.db.rows}, tagged with the {@code operation} of the request. A growing statement count for an
+ * operation points at N+1 selects or redundant queries. Work done on another thread, such as the streaming of
+ * an export, is not attributed to the request.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class PersistenceStatsInterceptor implements AsyncHandlerInterceptor {
+
+    static final String STATEMENTS_METRIC = "product.db.statements";
+
+    static final String ROWS_METRIC = "product.db.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PersistenceStats.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        PersistenceStats.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        PersistenceStats stats = PersistenceStats.stop();
+        if (stats == null) {
+            return;
+        }
+        String operation = OperationObservationConvention.operationOf(handler);
+        DistributionSummary.builder(STATEMENTS_METRIC)
+            .description("JDBC statements prepared per request")
+            .baseUnit("statements")
+            .tag(OperationObservationConvention.OPERATION_TAG, operation)
+            .register(meterRegistry)
+            .record(stats.getStatements());
+        DistributionSummary.builder(ROWS_METRIC)
+            .description("Rows read per request, as entities or projections")
+            .baseUnit("rows")
+            .tag(OperationObservationConvention.OPERATION_TAG, operation)
+            .register(meterRegistry)
+            .record(stats.getRows());
+    }
+}
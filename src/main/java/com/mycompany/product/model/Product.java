@@ -5,12 +5,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -18,13 +24,24 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * Each product has a unique identifier, name, description, price, and version for
  * optimistic locking. This entity is mapped to a database table named {@code Product}.
+ * Detached copies, such as the snapshots held by the read cache, are made with {@code toBuilder()}.
+ * The {@code (price, product_id)} index serves price range filters and the price ordered keyset pages.
  * </p>
  */
 @Slf4j
 @Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "product_price_idx", columnList = "price, product_id"))
 public class Product {
 
+    /**
+     * The number of decimal places the price column keeps.
+     */
+    public static final int PRICE_SCALE = 2;
+
     /**
      * The unique identifier for the product.
      * This ID is automatically generated using UUID strategy.
@@ -55,6 +72,7 @@ public class Product {
      * This field is mandatory.
      */
     @NotNull
+    @Column(precision = 38, scale = PRICE_SCALE)
     private BigDecimal price;
 
     /**
@@ -65,4 +83,15 @@ public class Product {
     @Version
     private long version;
 
+    /**
+     * Rounds a price to the scale of the price column, half away from zero as the database does on write,
+     * so that a product returned or cached without re-reading its row carries the price a later read returns.
+     *
+     * @param price the price to round, may be null
+     * @return the price as stored, or null if the price is null
+     */
+    public static BigDecimal storedPrice(BigDecimal price) {
+        return price == null ? null : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
 }
@@ -0,0 +1,126 @@
+package com.mycompany.product.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The {@code ProductChange} class is an entry of the product change log, a transactional outbox.
+ * <p>
+ * An entry is written in the same transaction as every create, update and delete of a product, so the log
+ * contains exactly the committed changes. Entries get their position in the log, the {@code sequence}, only
+ * after that transaction has committed, from the {@code ProductChangeSequencer}, so positions follow the
+ * commit order across all instances and consumers can resume from the last position they have seen. Until
+ * then they are ordered by their {@code changeId}. This entity is mapped to a database table named
+ * {@code product_change}.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_change")
+public class ProductChange {
+
+    /**
+     * The id of the entry. Ids are allocated from a database sequence in blocks of 50 per instance, so they
+     * follow the recording order only within an instance; the changes of one product are ordered by their
+     * {@code version} instead.
+     */
+    @Id
+    @Column(name = "change_id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @SequenceGenerator(name = "product_change_seq", sequenceName = "product_change_seq", allocationSize = 50)
+    private Long changeId;
+
+    /**
+     * The position of the change in the log, increasing in commit order, or {@code null} until it is assigned.
+     */
+    @Column(name = "sequence_number", unique = true)
+    private Long sequence;
+
+    /**
+     * The id of the changed product.
+     */
+    @NotNull
+    @Column(name = "product_id")
+    private UUID productId;
+
+    /**
+     * What happened to the product.
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Operation operation;
+
+    /**
+     * The version of the product after the change, {@code null} for deletes.
+     */
+    private Long version;
+
+    /**
+     * When the change was made.
+     */
+    @NotNull
+    private Instant recordedAt;
+
+    /**
+     * Creates the change for a newly created product.
+     *
+     * @param product the created product
+     * @return the change to record
+     */
+    public static ProductChange created(Product product) {
+        return of(product.getId(), Operation.CREATED, product.getVersion());
+    }
+
+    /**
+     * Creates the change for an updated product.
+     *
+     * @param product the updated product, with its new version
+     * @return the change to record
+     */
+    public static ProductChange updated(Product product) {
+        return of(product.getId(), Operation.UPDATED, product.getVersion());
+    }
+
+    /**
+     * Creates the change for a deleted product.
+     *
+     * @param id the id of the deleted product
+     * @return the change to record
+     */
+    public static ProductChange deleted(UUID id) {
+        return of(id, Operation.DELETED, null);
+    }
+
+    private static ProductChange of(UUID productId, Operation operation, Long version) {
+        return ProductChange.builder()
+            .productId(productId)
+            .operation(operation)
+            .version(version)
+            .recordedAt(Instant.now())
+            .build();
+    }
+
+    /**
+     * The kinds of product changes.
+     */
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+}
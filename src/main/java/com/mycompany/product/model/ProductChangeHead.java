@@ -0,0 +1,44 @@
+package com.mycompany.product.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The {@code ProductChangeHead} class holds the last position assigned in the product change log.
+ * <p>
+ * There is a single row, which the instance assigning positions locks for the duration of its transaction, so
+ * that positions are assigned by one instance at a time and become visible in increasing order. This entity is
+ * mapped to a database table named {@code product_change_head}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_change_head")
+public class ProductChangeHead {
+
+    /**
+     * The id of the single row.
+     */
+    public static final int ID = 0;
+
+    /**
+     * Always {@link #ID}.
+     */
+    @Id
+    private Integer id;
+
+    /**
+     * The last sequence number assigned to a change, 0 before the first one.
+     */
+    @NotNull
+    @Column(name = "last_sequence")
+    private Long lastSequence;
+}
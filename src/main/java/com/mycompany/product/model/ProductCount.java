@@ -0,0 +1,10 @@
+package com.mycompany.product.model;
+
+/**
+ * The {@code ProductCount} record is the number of products in the catalog, as exact or as estimated.
+ *
+ * @param total the number of products
+ * @param exact whether the number is exact, or an estimate of the database planner statistics
+ */
+public record ProductCount(long total, boolean exact) {
+}
@@ -0,0 +1,39 @@
+package com.mycompany.product.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The {@code ProductCountStripe} class is one part of the product counter, whose total is the sum of all parts.
+ * <p>
+ * Every create and delete of products adds to a random stripe, in the same transaction as the write, so the
+ * sum is exact without counting the product table, and concurrent writers rarely wait for the row lock of the
+ * same stripe. This entity is mapped to a database table named {@code product_count}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_count")
+public class ProductCountStripe {
+
+    /**
+     * The number of the stripe, from zero.
+     */
+    @Id
+    private Integer stripe;
+
+    /**
+     * The products added less the products removed through this stripe.
+     */
+    @NotNull
+    @Column(name = "product_count")
+    private Long count;
+}
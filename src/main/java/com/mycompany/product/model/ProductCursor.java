@@ -0,0 +1,63 @@
+package com.mycompany.product.model;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * The {@code ProductCursor} record is the position of the last product returned by a cursor page.
+ * <p>
+ * It carries the ordering it was produced for together with the sort key values of that product, so the
+ * next page can be fetched with a seek predicate such as {@code (price, id) > (?, ?)} instead of an offset.
+ * Clients only ever see the opaque token produced by {@link #encode()}.
+ * </p>
+ *
+ * @param sort  the ordering the cursor belongs to
+ * @param id    the id of the last product of the page
+ * @param price the price of the last product of the page, only set for {@link ProductSort#PRICE}
+ */
+public record ProductCursor(ProductSort sort, UUID id, BigDecimal price) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the cursor pointing just after the given product for the given ordering.
+     *
+     * @param sort    the ordering of the page
+     * @param product the last product of the page
+     * @return the cursor for the next page
+     */
+    public static ProductCursor after(ProductSort sort, Product product) {
+        return new ProductCursor(sort, product.getId(), sort == ProductSort.PRICE ? product.getPrice() : null);
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL safe token.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + id + (price != null ? SEPARATOR + price.toPlainString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor token
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ProductCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\" + SEPARATOR);
+        ProductSort sort = ProductSort.valueOf(parts[0]);
+        int expectedParts = sort == ProductSort.PRICE ? 3 : 2;
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        return new ProductCursor(sort, UUID.fromString(parts[1]),
+            sort == ProductSort.PRICE ? new BigDecimal(parts[2]) : null);
+    }
+}
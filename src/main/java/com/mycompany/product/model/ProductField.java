@@ -0,0 +1,89 @@
+package com.mycompany.product.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@code ProductField} enum lists the fields of a product a client can select with the {@code fields}
+ * query parameter, for a sparse response that only carries those fields.
+ * <p>
+ * The id is part of every selection. The price and the version are cheap fixed-size columns that keyset cursors
+ * and ETags are computed from, so they are always read from the database, but only returned when selected; the
+ * name and the description are only read when selected.
+ * </p>
+ */
+public enum ProductField {
+
+    /**
+     * The product id, always selected.
+     */
+    ID("id"),
+
+    /**
+     * The product name.
+     */
+    NAME("name"),
+
+    /**
+     * The product description, usually the largest field.
+     */
+    DESCRIPTION("description"),
+
+    /**
+     * The product price.
+     */
+    PRICE("price"),
+
+    /**
+     * The product version.
+     */
+    VERSION("version");
+
+    private final String parameter;
+
+    ProductField(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Returns the name of this field in the {@code fields} query parameter and in the product DTO.
+     *
+     * @return the field name
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Resolves the fields selected by a comma separated {@code fields} query parameter, e.g. {@code name,price}.
+     *
+     * @param parameter the value of the {@code fields} query parameter, or {@code null} for all fields
+     * @return the selected fields, always including {@link #ID}
+     * @throws IllegalArgumentException if a value does not name a product field
+     */
+    public static Set<ProductField> fromParameter(String parameter) {
+        if (parameter == null) {
+            return EnumSet.allOf(ProductField.class);
+        }
+        Set<ProductField> fields = EnumSet.of(ID);
+        for (String name : parameter.split(",")) {
+            String trimmed = name.trim();
+            fields.add(Arrays.stream(values())
+                .filter(field -> field.parameter.equalsIgnoreCase(trimmed))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported field: " + trimmed)));
+        }
+        return fields;
+    }
+
+    /**
+     * Tells whether a selection leaves out any field, so that a sparse response is needed.
+     *
+     * @param fields the selected fields
+     * @return whether not all fields are selected
+     */
+    public static boolean isSparse(Set<ProductField> fields) {
+        return fields.size() < values().length;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mycompany.product.model;
+
+import java.util.UUID;
+
+/**
+ * The {@code ProductKey} record identifies a product, optionally at an expected version.
+ *
+ * @param id      the id of the product
+ * @param version the version the product is expected to have, or {@code null} to skip the version check
+ */
+public record ProductKey(UUID id, Long version) {
+}
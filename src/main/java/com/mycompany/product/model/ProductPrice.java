@@ -0,0 +1,13 @@
+package com.mycompany.product.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The {@code ProductPrice} record is a new price for a product, as sent by the pricing engine.
+ *
+ * @param id    the id of the product
+ * @param price the new price of the product
+ */
+public record ProductPrice(UUID id, BigDecimal price) {
+}
@@ -0,0 +1,54 @@
+package com.mycompany.product.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The {@code ProductQuery} record describes one page of a keyset paginated product listing.
+ * <p>
+ * The optional price bounds restrict the listing to a price range. Ordered by {@link ProductSort#PRICE}, a
+ * page is then a single range scan of the {@code (price, product_id)} index, starting at the lower bound or
+ * at the cursor, whichever is higher, however deep the page is.
+ * </p>
+ *
+ * @param sort     the stable ordering of the products
+ * @param minPrice the lowest price to include, or {@code null} for no lower bound
+ * @param maxPrice the highest price to include, or {@code null} for no upper bound
+ * @param after    the cursor of the previous page, or {@code null} for the first page
+ * @param limit    the maximum number of products to return
+ */
+public record ProductQuery(ProductSort sort, BigDecimal minPrice, BigDecimal maxPrice, ProductCursor after,
+                           int limit) {
+
+    /**
+     * Validates the query.
+     *
+     * @throws IllegalArgumentException if the price range is empty, the cursor belongs to another ordering
+     *                                  or the limit is not positive
+     */
+    public ProductQuery {
+        if (sort == null) {
+            throw new IllegalArgumentException("A sort is required");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice " + minPrice + " is greater than maxPrice " + maxPrice);
+        }
+        if (after != null && after.sort() != sort) {
+            throw new IllegalArgumentException("Cursor was not issued for sort " + sort.getParameter());
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+    }
+
+    /**
+     * Creates a query for all products, without price bounds.
+     *
+     * @param sort  the stable ordering of the products
+     * @param after the cursor of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of products to return
+     * @return the query
+     */
+    public static ProductQuery of(ProductSort sort, ProductCursor after, int limit) {
+        return new ProductQuery(sort, null, null, after, limit);
+    }
+}
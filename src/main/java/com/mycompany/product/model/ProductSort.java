@@ -0,0 +1,52 @@
+package com.mycompany.product.model;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ProductSort} enum lists the stable orderings supported by cursor (keyset) pagination.
+ * <p>
+ * Every ordering ends with the product id so that it is total, which is what allows a page to be
+ * resumed from the last row of the previous page without an offset.
+ * </p>
+ */
+public enum ProductSort {
+
+    /**
+     * Ordered by product id.
+     */
+    ID("id"),
+
+    /**
+     * Ordered by price, ties broken by product id.
+     */
+    PRICE("price");
+
+    private final String parameter;
+
+    ProductSort(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Returns the value used for this ordering in the {@code sort} query parameter.
+     *
+     * @return the query parameter value
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Resolves an ordering from its query parameter value.
+     *
+     * @param parameter the value of the {@code sort} query parameter
+     * @return the matching {@link ProductSort}
+     * @throws IllegalArgumentException if the value does not name a supported ordering
+     */
+    public static ProductSort fromParameter(String parameter) {
+        return Arrays.stream(values())
+            .filter(sort -> sort.parameter.equalsIgnoreCase(parameter))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + parameter));
+    }
+}
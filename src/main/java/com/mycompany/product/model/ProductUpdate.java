@@ -0,0 +1,11 @@
+package com.mycompany.product.model;
+
+/**
+ * The {@code ProductUpdate} record carries the new state of a product together with the version
+ * the client based its change on.
+ *
+ * @param product         the product containing updated information
+ * @param expectedVersion the version the stored product is expected to have, or {@code null} to skip the check
+ */
+public record ProductUpdate(Product product, Long expectedVersion) {
+}
@@ -0,0 +1,26 @@
+package com.mycompany.product.model;
+
+import java.util.UUID;
+
+/**
+ * The {@code ProductVersion} record identifies one version of a product without any of its data.
+ * <p>
+ * It is what a conditional request needs to compute the ETag of a product or of a page of products, and
+ * is queried as a projection so answering an unchanged conditional request never loads full rows.
+ * </p>
+ *
+ * @param id      the id of the product
+ * @param version the {@code @Version} of the product
+ */
+public record ProductVersion(UUID id, long version) {
+
+    /**
+     * Returns the version of the given product.
+     *
+     * @param product the product
+     * @return the id and version of the product
+     */
+    public static ProductVersion of(Product product) {
+        return new ProductVersion(product.getId(), product.getVersion());
+    }
+}
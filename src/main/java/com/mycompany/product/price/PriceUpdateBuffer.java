@@ -0,0 +1,239 @@
+package com.mycompany.product.price;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.service.ProductBatchResult;
+import com.mycompany.product.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code PriceUpdateBuffer} coalesces bursts of price updates and writes them asynchronously.
+ * <p>
+ * The pricing engine often sends many prices for the same product within a second and only the last one
+ * matters. Accepted prices are kept in a {@link ConcurrentHashMap} keyed by product id, whose striped bins and
+ * CAS updates let request threads write without a shared lock, so a newer price simply replaces the pending
+ * one. A flush writes the pending prices with {@link ProductService#updatePrices(List)}, in batched
+ * transactions, every {@code flush-interval} or as soon as {@code flush-threshold} products are pending. Flushes
+ * run one at a time on virtual threads, so a platform thread only keeps the time and never waits for the
+ * database. A price is only removed from the buffer once written, and only if no newer price arrived in the
+ * meantime, so a failed flush is retried and a concurrent update is never lost.
+ * </p>
+ * <p>
+ * The buffer holds at most {@code capacity} products; updates that do not fit are rejected so the caller can
+ * back off. Flush latency is timed as {@code product.prices.flush} and the number of accepted updates per
+ * written product is recorded as {@code product.prices.coalescing}.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.price-updates.buffered", havingValue = "true")
+public class PriceUpdateBuffer implements SmartLifecycle {
+
+    private final ProductService productService;
+
+    private final Duration flushInterval;
+
+    private final int flushThreshold;
+
+    private final int capacity;
+
+    private final Map<UUID, BigDecimal> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder acceptedSinceFlush = new LongAdder();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final Counter acceptedUpdates;
+
+    private final Counter rejectedUpdates;
+
+    private final Timer flushTimer;
+
+    private final DistributionSummary coalescing;
+
+    private volatile ExecutorService flusher;
+
+    private ScheduledExecutorService timer;
+
+    public PriceUpdateBuffer(ProductProperties properties, ProductService productService,
+                             MeterRegistry meterRegistry) {
+        ProductProperties.PriceUpdates settings = properties.getPriceUpdates();
+        this.productService = productService;
+        this.flushInterval = settings.getFlushInterval();
+        this.flushThreshold = settings.getFlushThreshold();
+        this.capacity = settings.getCapacity();
+        this.acceptedUpdates = Counter.builder("product.prices.accepted")
+            .description("Price updates accepted into the buffer")
+            .register(meterRegistry);
+        this.rejectedUpdates = Counter.builder("product.prices.rejected")
+            .description("Price updates rejected because the buffer was full")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("product.prices.flush")
+            .description("Time spent writing the buffered prices")
+            .register(meterRegistry);
+        this.coalescing = DistributionSummary.builder("product.prices.coalescing")
+            .description("Price updates accepted per product written by a flush")
+            .register(meterRegistry);
+        Gauge.builder("product.prices.pending", pending, Map::size)
+            .description("Products with a price waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Accepts the given prices into the buffer, replacing pending prices of the same products.
+     *
+     * @param prices the new prices
+     * @return true if the prices were accepted, false if the buffer is full or not running
+     */
+    public boolean offer(List<ProductPrice> prices) {
+        // The bound is soft: concurrent offers may overshoot it by the size of their requests
+        if (flusher == null || pending.size() + prices.size() > capacity) {
+            rejectedUpdates.increment(prices.size());
+            return false;
+        }
+        prices.forEach(price -> pending.put(price.id(), price.price()));
+        acceptedUpdates.increment(prices.size());
+        acceptedSinceFlush.add(prices.size());
+        if (pending.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flushAsync();
+        }
+        return true;
+    }
+
+    /**
+     * Starts a flush on a virtual thread, unless one is running. A flush requested while one is running starts
+     * as soon as it is done.
+     */
+    private void flushAsync() {
+        ExecutorService currentFlusher = flusher;
+        if (currentFlusher == null || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            currentFlusher.execute(() -> {
+                try {
+                    flushQuietly();
+                } finally {
+                    flushing.set(false);
+                }
+                if (flushRequested.get()) {
+                    flushAsync();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopping, the final flush writes the prices
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Writes all pending prices. Only ever run by one flush at a time, or once more after the flushes stopped.
+     */
+    void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<UUID, BigDecimal> snapshot = Map.copyOf(pending);
+        long accepted = acceptedSinceFlush.sumThenReset();
+        List<ProductPrice> prices = snapshot.entrySet().stream()
+            .map(entry -> new ProductPrice(entry.getKey(), entry.getValue()))
+            .toList();
+
+        List<ProductBatchResult> results;
+        Timer.Sample sample = Timer.start();
+        try {
+            results = productService.updatePrices(prices);
+        } catch (RuntimeException e) {
+            acceptedSinceFlush.add(accepted);
+            log.error("Writing {} buffered prices failed, retrying with the next flush", prices.size(), e);
+            return;
+        } finally {
+            sample.stop(flushTimer);
+        }
+
+        snapshot.forEach(pending::remove);
+        coalescing.record((double) accepted / prices.size());
+        long notWritten = results.stream().filter(result -> !result.successful()).count();
+        if (notWritten > 0) {
+            log.warn("Dropped {} of {} buffered prices that could not be written", notWritten, prices.size());
+        }
+        log.debug("Wrote {} buffered prices coalesced from {} updates", prices.size(), accepted);
+    }
+
+    @Override
+    public synchronized void start() {
+        flusher = Executors.newVirtualThreadPerTaskExecutor();
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-update-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::flushAsync, flushInterval.toMillis(), flushInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+        log.info("Buffering price updates, flushed every {} or at {} products", flushInterval, flushThreshold);
+    }
+
+    @Override
+    public synchronized void stop() {
+        ExecutorService currentFlusher = flusher;
+        if (currentFlusher == null) {
+            return;
+        }
+        flusher = null;
+        timer.shutdown();
+        timer = null;
+        currentFlusher.shutdown();
+        try {
+            currentFlusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return flusher != null;
+    }
+
+    /**
+     * Stops after the web server, so that prices accepted by the last requests are still written.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic flush
+            log.error("Flushing buffered prices failed", e);
+        }
+    }
+}
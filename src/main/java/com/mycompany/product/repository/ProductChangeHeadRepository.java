@@ -0,0 +1,20 @@
+package com.mycompany.product.repository;
+
+import com.mycompany.product.model.ProductChangeHead;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ProductChangeHeadRepository extends JpaRepository<ProductChangeHead, Integer> {
+
+    /**
+     * Finds the head of the product change log and locks it until the end of the current transaction.
+     *
+     * @return an Optional containing the head, or empty if it was not created yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from ProductChangeHead h where h.id = " + ProductChangeHead.ID)
+    Optional<ProductChangeHead> findAndLock();
+}
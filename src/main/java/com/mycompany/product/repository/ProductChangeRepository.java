@@ -0,0 +1,86 @@
+package com.mycompany.product.repository;
+
+import com.mycompany.product.model.ProductChange;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    /**
+     * Finds the changes after the given sequence number, in sequence order. Changes that have no sequence number
+     * yet are left out.
+     *
+     * @param since    the last sequence number the caller has seen
+     * @param pageable the maximum number of changes to return, the offset should be zero
+     * @return a {@link Slice} of changes
+     */
+    @Query("select c from ProductChange c where c.sequence > :since order by c.sequence")
+    Slice<ProductChange> findAfter(long since, Pageable pageable);
+
+    /**
+     * Finds the highest sequence number after the given one. The sequence range keeps this to a range scan of
+     * the unique index on the sequence number.
+     *
+     * @param since the sequence number to look after
+     * @return an Optional containing the highest sequence number, or empty if there is no such change
+     */
+    @Query("select max(c.sequence) from ProductChange c where c.sequence > :since")
+    Optional<Long> findLastAfter(long since);
+
+    /**
+     * Finds the highest sequence number assigned so far.
+     *
+     * @return an Optional containing the highest sequence number, or empty if no change has one
+     */
+    @Query("select max(c.sequence) from ProductChange c")
+    Optional<Long> findLastSequence();
+
+    /**
+     * Finds the committed changes that have no sequence number yet, in the order they were recorded.
+     *
+     * @param pageable the maximum number of changes to return, the offset should be zero
+     * @return the changes
+     */
+    @Query("select c from ProductChange c where c.sequence is null order by c.changeId")
+    List<ProductChange> findUnsequenced(Pageable pageable);
+
+    /**
+     * Finds the committed changes of the given products that have no sequence number yet.
+     *
+     * @param productIds the ids of the products
+     * @return the changes, in no particular order
+     */
+    @Query("select c from ProductChange c where c.sequence is null and c.productId in :productIds")
+    List<ProductChange> findUnsequencedOf(Collection<UUID> productIds);
+
+    /**
+     * Finds the lowest sequence number still kept. All numbers below it have been deleted by the retention.
+     *
+     * @return an Optional containing the lowest sequence number, or empty if no change has one
+     */
+    @Query("select min(c.sequence) from ProductChange c")
+    Optional<Long> findFirstSequence();
+
+    /**
+     * Deletes the numbered changes recorded before the given instant. The last numbered change is always kept, so
+     * that {@link #findFirstSequence()} tells how far the log has been deleted, and changes without a number are
+     * kept until they have one.
+     *
+     * @param recordedBefore the instant before which changes are deleted
+     * @return the number of deleted changes
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ProductChange c where c.recordedAt < :recordedBefore "
+        + "and c.sequence < (select max(l.sequence) from ProductChange l)")
+    int deleteRecordedBefore(Instant recordedBefore);
+}
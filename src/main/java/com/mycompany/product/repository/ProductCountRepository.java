@@ -0,0 +1,44 @@
+package com.mycompany.product.repository;
+
+import com.mycompany.product.model.ProductCountStripe;
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ProductCountRepository extends JpaRepository<ProductCountStripe, Integer> {
+
+    /**
+     * Adds to the count of a stripe in a single statement.
+     *
+     * @param stripe the number of the stripe
+     * @param delta  the products added, negative for products removed
+     * @return the number of updated rows, 0 if the stripe does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update ProductCountStripe s set s.count = s.count + :delta where s.stripe = :stripe")
+    int add(int stripe, long delta);
+
+    /**
+     * Sums the counts of all stripes.
+     *
+     * @return an Optional containing the number of products, or empty if the counter is not initialized
+     */
+    @Transactional(readOnly = true)
+    @Query("select sum(s.count) from ProductCountStripe s")
+    Optional<Long> sum();
+
+    /**
+     * Finds all stripes and locks them until the end of the current transaction, in stripe order.
+     *
+     * @return the stripes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ProductCountStripe s order by s.stripe")
+    List<ProductCountStripe> findAllAndLock();
+}
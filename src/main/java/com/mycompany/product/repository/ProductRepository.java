@@ -1,7 +1,62 @@
 package com.mycompany.product.repository;
 
 import com.mycompany.product.model.Product;
+import java.math.BigDecimal;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {}
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
+
+    /**
+     * Retrieves a page of products without counting the total. One extra row tells whether a next page exists.
+     *
+     * @param pageable the pagination information
+     * @return a {@link Slice} of products
+     */
+    @Transactional(readOnly = true)
+    Slice<Product> findAllBy(Pageable pageable);
+
+    /**
+     * Updates a product in a single statement if it still has the expected version, incrementing the version.
+     *
+     * @param id          the id of the product
+     * @param name        the new name
+     * @param description the new description
+     * @param price       the new price
+     * @param version     the version the product is expected to have
+     * @return the number of updated rows, 0 if the product does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.name = :name, p.description = :description, p.price = :price, "
+        + "p.version = p.version + 1 where p.id = :id and p.version = :version")
+    int updateIfVersion(UUID id, String name, String description, BigDecimal price, long version);
+
+    /**
+     * Deletes a product in a single statement.
+     *
+     * @param id the id of the product
+     * @return the number of deleted rows, 0 if the product does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteIfExists(UUID id);
+
+    /**
+     * Deletes a product in a single statement if it still has the expected version.
+     *
+     * @param id      the id of the product
+     * @param version the version the product is expected to have
+     * @return the number of deleted rows, 0 if the product does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id and p.version = :version")
+    int deleteIfVersion(UUID id, long version);
+}
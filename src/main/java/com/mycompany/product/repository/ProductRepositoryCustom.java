@@ -0,0 +1,109 @@
+package com.mycompany.product.repository;
+
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductVersion;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Custom query methods of {@link ProductRepository} that cannot be expressed as derived queries.
+ * The queries that read projections instead of entities report their rows to the persistence statistics.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Retrieves one page of products using keyset pagination.
+     * <p>
+     * The page starts right after the cursor of the query in its ordering and is fetched with a seek
+     * predicate, so the cost of a page does not depend on how deep it is. No count query is issued; the
+     * returned {@link Slice} only knows whether another page follows.
+     * </p>
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a {@link Slice} of at most {@code query.limit()} products
+     */
+    Slice<Product> findSlice(ProductQuery query);
+
+    /**
+     * Retrieves only the ids and versions of the page {@link #findSlice(ProductQuery)} returns for the same
+     * query.
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a {@link Slice} of at most {@code query.limit()} product versions
+     */
+    Slice<ProductVersion> findVersionSlice(ProductQuery query);
+
+    /**
+     * Retrieves only the version of a product.
+     *
+     * @param id the id of the product
+     * @return an Optional containing the version, or empty if the product does not exist
+     */
+    Optional<Long> findVersionById(UUID id);
+
+    /**
+     * Retrieves only the ids and versions of a page of products, without counting the total.
+     *
+     * @param pageable the pagination information
+     * @return a {@link Slice} of product versions
+     */
+    Slice<ProductVersion> findVersions(Pageable pageable);
+
+    /**
+     * Retrieves the page {@link ProductRepository#findAllBy(Pageable)} returns, reading only the selected columns.
+     * <p>
+     * The products are detached partial copies: the id, price and version are always read, the name and the
+     * description only when selected, and are {@code null} otherwise. They must not be saved or cached.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param fields   the fields to read
+     * @return a {@link Slice} of partial products
+     */
+    Slice<Product> findProjected(Pageable pageable, Set<ProductField> fields);
+
+    /**
+     * Retrieves the page {@link #findSlice(ProductQuery)} returns, reading only the selected columns like
+     * {@link #findProjected(Pageable, Set)}.
+     *
+     * @param query  the ordering, price range, position and size of the page
+     * @param fields the fields to read
+     * @return a {@link Slice} of at most {@code query.limit()} partial products
+     */
+    Slice<Product> findProjectedSlice(ProductQuery query, Set<ProductField> fields);
+
+    /**
+     * Retrieves a product, reading only the selected columns like {@link #findProjected(Pageable, Set)}.
+     *
+     * @param id     the id of the product
+     * @param fields the fields to read
+     * @return an Optional containing the partial product, or empty if the product does not exist
+     */
+    Optional<Product> findProjectedById(UUID id, Set<ProductField> fields);
+
+    /**
+     * Flushes pending changes to the database and detaches all managed products.
+     * Used between the chunks of a batch write so the persistence context does not grow with the batch.
+     */
+    void flushAndClear();
+
+    /**
+     * Streams all products ordered by id, starting after the given id.
+     * <p>
+     * The rows are read through a database cursor with the given fetch size and every product is detached
+     * once read, so memory use stays flat however many products are streamed. The stream must be consumed
+     * and closed inside a transaction.
+     * </p>
+     *
+     * @param after     the id to continue after, or {@code null} to start with the first product
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @return a stream of detached products
+     */
+    Stream<Product> streamAfter(UUID after, int fetchSize);
+}
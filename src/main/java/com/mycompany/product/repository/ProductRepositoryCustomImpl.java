@@ -0,0 +1,197 @@
+package com.mycompany.product.repository;
+
+import com.mycompany.product.metrics.PersistenceStats;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductCursor;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.model.ProductVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JPQL based implementation of {@link ProductRepositoryCustom}.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Product> findSlice(ProductQuery query) {
+        return seek("select p", Product.class, query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductVersion> findVersionSlice(ProductQuery query) {
+        return seek("select new com.mycompany.product.model.ProductVersion(p.id, p.version)", ProductVersion.class,
+            query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(UUID id) {
+        List<Long> versions = entityManager.createQuery("select p.version from Product p where p.id = :id", Long.class)
+            .setParameter("id", id)
+            .getResultList();
+        PersistenceStats.rowsRead(versions.size());
+        return versions.stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductVersion> findVersions(Pageable pageable) {
+        return page("select new com.mycompany.product.model.ProductVersion(p.id, p.version)", ProductVersion.class,
+            pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Product> findProjected(Pageable pageable, Set<ProductField> fields) {
+        return page(projection(fields), Object[].class, pageable).map(row -> toProduct(row, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Product> findProjectedSlice(ProductQuery query, Set<ProductField> fields) {
+        return seek(projection(fields), Object[].class, query).map(row -> toProduct(row, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Product> findProjectedById(UUID id, Set<ProductField> fields) {
+        List<Object[]> rows = entityManager.createQuery(projection(fields) + " from Product p where p.id = :id",
+                Object[].class)
+            .setParameter("id", id)
+            .getResultList();
+        PersistenceStats.rowsRead(rows.size());
+        return rows.stream().findFirst().map(row -> toProduct(row, fields));
+    }
+
+    /**
+     * Reads the page of the given pageable with the given projection, without a count query.
+     */
+    private <T> Slice<T> page(String select, Class<T> type, Pageable pageable) {
+        String jpql = QueryUtils.applySorting(select + " from Product p", pageable.getSort(), "p");
+        // One extra row tells us whether a next page exists without running a count query
+        List<T> rows = entityManager.createQuery(jpql, type)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+        PersistenceStats.rowsRead(rows.size());
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Selects the id, version and price, which cursors and ETags need, and the name and description if selected.
+     */
+    private static String projection(Set<ProductField> fields) {
+        StringBuilder select = new StringBuilder("select p.id, p.version, p.price");
+        if (fields.contains(ProductField.NAME)) {
+            select.append(", p.name");
+        }
+        if (fields.contains(ProductField.DESCRIPTION)) {
+            select.append(", p.description");
+        }
+        return select.toString();
+    }
+
+    private static Product toProduct(Object[] row, Set<ProductField> fields) {
+        int column = 3;
+        String name = fields.contains(ProductField.NAME) ? (String) row[column++] : null;
+        String description = fields.contains(ProductField.DESCRIPTION) ? (String) row[column] : null;
+        return Product.builder()
+            .id((UUID) row[0])
+            .version((Long) row[1])
+            .price((BigDecimal) row[2])
+            .name(name)
+            .description(description)
+            .build();
+    }
+
+    private <T> Slice<T> seek(String select, Class<T> type, ProductQuery query) {
+        ProductSort sort = query.sort();
+        ProductCursor after = query.after();
+        List<String> predicates = new ArrayList<>();
+        if (query.minPrice() != null) {
+            predicates.add("p.price >= :minPrice");
+        }
+        if (query.maxPrice() != null) {
+            predicates.add("p.price <= :maxPrice");
+        }
+        if (after != null) {
+            // Equivalent to (price, id) > (:price, :id), spelled so the leading price bound is an index range start
+            predicates.add(sort == ProductSort.PRICE
+                ? "p.price >= :price and (p.price > :price or p.id > :id)"
+                : "p.id > :id");
+        }
+        StringBuilder jpql = new StringBuilder(select).append(" from Product p");
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        jpql.append(sort == ProductSort.PRICE ? " order by p.price, p.id" : " order by p.id");
+
+        // One extra row tells us whether a next page exists without running a count query
+        TypedQuery<T> typedQuery = entityManager.createQuery(jpql.toString(), type)
+            .setMaxResults(query.limit() + 1);
+        if (query.minPrice() != null) {
+            typedQuery.setParameter("minPrice", query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            typedQuery.setParameter("maxPrice", query.maxPrice());
+        }
+        if (after != null) {
+            typedQuery.setParameter("id", after.id());
+            if (sort == ProductSort.PRICE) {
+                typedQuery.setParameter("price", after.price());
+            }
+        }
+
+        List<T> rows = typedQuery.getResultList();
+        if (type != Product.class) {
+            // Entity rows are counted as they are loaded
+            PersistenceStats.rowsRead(rows.size());
+        }
+        int limit = query.limit();
+        boolean hasNext = rows.size() > limit;
+        return new SliceImpl<>(hasNext ? rows.subList(0, limit) : rows, PageRequest.of(0, limit), hasNext);
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Stream<Product> streamAfter(UUID after, int fetchSize) {
+        TypedQuery<Product> query = entityManager.createQuery(after != null
+                ? "select p from Product p where p.id > :id order by p.id"
+                : "select p from Product p order by p.id", Product.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (after != null) {
+            query.setParameter("id", after);
+        }
+        return query.getResultStream().peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,197 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.support.TransactionCallbacks;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process inverted index of product names and descriptions.
+ * <p>
+ * The terms are kept in a sorted map, so the words starting with a query token are one range lookup away,
+ * and every term lists the products containing it with a field weight. A query intersects the products of
+ * its tokens, most selective token first, and keeps only the best {@code offset + limit} matches in a bounded
+ * heap instead of sorting all of them. Reads are lock free; writes are serialized and, like the product
+ * cache, applied after the writing transaction commits and never replace a newer version of a product.
+ * A deleted product leaves a tombstone, its id, so that a late write of an older version does not add it back;
+ * ids are never reused, so tombstones are kept for the lifetime of the index.
+ * </p>
+ * <p>
+ * The index is populated at startup by {@link InMemoryProductSearchIndexLoader} and then maintained by the
+ * product service, so products written by other instances or directly in the database are not found until
+ * the next restart. It is meant for H2 and single-instance deployments; use the PostgreSQL index otherwise.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchIndex implements ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 4;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int WHOLE_WORD_BOOST = 2;
+
+    private static final Comparator<Map.Entry<UUID, Integer>> RANKING =
+        Map.Entry.<UUID, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final ConcurrentSkipListMap<String, Map<UUID, Integer>> postings = new ConcurrentSkipListMap<>();
+
+    private final Map<UUID, IndexedProduct> products = new ConcurrentHashMap<>();
+
+    private final Set<UUID> deleted = ConcurrentHashMap.newKeySet();
+
+    private final int minPrefixLength;
+
+    public InMemoryProductSearchIndex(ProductProperties properties) {
+        this.minPrefixLength = properties.getSearch().getMinPrefixLength();
+    }
+
+    @Override
+    public Slice<UUID> search(String query, Pageable pageable) {
+        List<String> tokens = new ArrayList<>(ProductSearchTokenizer.tokenize(query));
+        if (tokens.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        // Longer tokens match fewer products, starting with them keeps the intermediate results small
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        Map<UUID, Integer> scores = null;
+        for (String token : tokens) {
+            scores = match(token, scores);
+            if (scores.isEmpty()) {
+                return new SliceImpl<>(List.of(), pageable, false);
+            }
+        }
+
+        long wanted = pageable.getOffset() + pageable.getPageSize() + 1;
+        PriorityQueue<Map.Entry<UUID, Integer>> best = new PriorityQueue<>(RANKING.reversed());
+        for (Map.Entry<UUID, Integer> score : scores.entrySet()) {
+            best.offer(score);
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<UUID, Integer>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+
+        List<UUID> ids = ranked.stream()
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(Map.Entry::getKey)
+            .toList();
+        return new SliceImpl<>(ids, pageable, ranked.size() > pageable.getOffset() + pageable.getPageSize());
+    }
+
+    @Override
+    public void index(Product product) {
+        UUID id = product.getId();
+        long version = product.getVersion();
+        Map<String, Integer> terms = termsOf(product);
+        TransactionCallbacks.afterCommit(() -> apply(id, version, terms));
+    }
+
+    /**
+     * Adds a product read from committed data to the index right away, without waiting for the current
+     * transaction. Used to populate the index while streaming the catalog in a single read transaction.
+     *
+     * @param product the committed product
+     */
+    void load(Product product) {
+        apply(product.getId(), product.getVersion(), termsOf(product));
+    }
+
+    @Override
+    public void remove(UUID id) {
+        TransactionCallbacks.afterCommit(() -> delete(id));
+    }
+
+    /**
+     * Returns the number of indexed products.
+     *
+     * @return the number of products
+     */
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * Scores the products matching one token, restricted to the candidates matching the previous tokens.
+     */
+    private Map<UUID, Integer> match(String token, Map<UUID, Integer> candidates) {
+        NavigableMap<String, Map<UUID, Integer>> terms = token.length() >= minPrefixLength
+            ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+            : postings.subMap(token, true, token, true);
+        Map<UUID, Integer> matches = new HashMap<>();
+        terms.forEach((term, documents) -> {
+            int boost = term.length() == token.length() ? WHOLE_WORD_BOOST : 1;
+            documents.forEach((id, weight) -> {
+                Integer score = candidates == null ? Integer.valueOf(0) : candidates.get(id);
+                if (score != null) {
+                    matches.merge(id, score + weight * boost, Math::max);
+                }
+            });
+        });
+        return matches;
+    }
+
+    private static Map<String, Integer> termsOf(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        ProductSearchTokenizer.tokenize(product.getName())
+            .forEach(term -> terms.merge(term, NAME_WEIGHT, Integer::sum));
+        ProductSearchTokenizer.tokenize(product.getDescription())
+            .forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        return terms;
+    }
+
+    private synchronized void apply(UUID id, long version, Map<String, Integer> terms) {
+        if (deleted.contains(id)) {
+            return;
+        }
+        IndexedProduct current = products.get(id);
+        if (current != null) {
+            if (current.version() > version) {
+                return;
+            }
+            current.terms().keySet().forEach(term -> removePosting(term, id));
+        }
+        terms.forEach((term, weight) ->
+            postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, weight));
+        products.put(id, new IndexedProduct(version, terms));
+    }
+
+    private synchronized void delete(UUID id) {
+        deleted.add(id);
+        IndexedProduct current = products.remove(id);
+        if (current != null) {
+            current.terms().keySet().forEach(term -> removePosting(term, id));
+        }
+    }
+
+    private void removePosting(String term, UUID id) {
+        postings.computeIfPresent(term, (key, documents) -> {
+            documents.remove(id);
+            return documents.isEmpty() ? null : documents;
+        });
+    }
+
+    /**
+     * The indexed version of a product and the weights of its terms.
+     */
+    private record IndexedProduct(long version, Map<String, Integer> terms) {
+    }
+}
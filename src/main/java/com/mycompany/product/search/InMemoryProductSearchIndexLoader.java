@@ -0,0 +1,30 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Populates the {@link InMemoryProductSearchIndex} with the whole catalog once the application has started.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchIndexLoader {
+
+    private final InMemoryProductSearchIndex productSearchIndex;
+
+    private final ProductService productService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        long count = productService.exportProducts(null, productSearchIndex::load);
+        log.info("Indexed {} products for search in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+    }
+}
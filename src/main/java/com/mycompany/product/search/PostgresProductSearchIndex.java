@@ -0,0 +1,72 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.model.Product;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * PostgreSQL full-text search over the {@code product_search_idx} GIN index.
+ * <p>
+ * Name and description are indexed as one {@code tsvector} with the name weighted {@code A} and the
+ * description {@code B}, using the {@code simple} configuration so words are matched as written rather than
+ * stemmed. Every query token becomes a prefix match ({@code token:*}) and the results are ranked with
+ * {@code ts_rank}. The database maintains the index itself, so {@link #index(Product)} and
+ * {@link #remove(UUID)} have nothing to do.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "postgres")
+public class PostgresProductSearchIndex implements ProductSearchIndex {
+
+    /**
+     * Must stay identical to the expression of {@code product_search_idx} for the index to be used.
+     */
+    private static final String DOCUMENT = "(setweight(to_tsvector('simple', name), 'A') "
+        + "|| setweight(to_tsvector('simple', description), 'B'))";
+
+    private static final String SEARCH = "select product_id from product"
+        + " where " + DOCUMENT + " @@ to_tsquery('simple', :query)"
+        + " order by ts_rank(" + DOCUMENT + ", to_tsquery('simple', :query)) desc, product_id"
+        + " limit :limit offset :offset";
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    public Slice<UUID> search(String query, Pageable pageable) {
+        List<String> tokens = ProductSearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        // The tokens only hold letters and digits, so they cannot inject tsquery operators
+        String tsQuery = tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+
+        // One extra row tells us whether a next page exists without running a count query
+        List<UUID> ids = jdbcClient.sql(SEARCH)
+            .param("query", tsQuery)
+            .param("limit", pageable.getPageSize() + 1)
+            .param("offset", pageable.getOffset())
+            .query(UUID.class)
+            .list();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    @Override
+    public void index(Product product) {
+        // Maintained by the database
+    }
+
+    @Override
+    public void remove(UUID id) {
+        // Maintained by the database
+    }
+}
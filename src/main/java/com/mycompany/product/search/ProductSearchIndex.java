@@ -0,0 +1,40 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.model.Product;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * The {@code ProductSearchIndex} interface defines the full-text index behind the product search.
+ * <p>
+ * A query is split into word tokens. A product matches when every token is a word, or the prefix of a word,
+ * of its name or description. Matches are ranked by relevance: name matches weigh more than description
+ * matches and whole word matches more than prefix matches. Ties are ordered by id, so pages are stable.
+ * </p>
+ */
+public interface ProductSearchIndex {
+
+    /**
+     * Finds the ids of the products matching the query, best match first.
+     *
+     * @param query    the search query
+     * @param pageable the page of the ranked matches to return
+     * @return a {@link Slice} of product ids in rank order
+     */
+    Slice<UUID> search(String query, Pageable pageable);
+
+    /**
+     * Adds a created or updated product to the index, once the current transaction has committed.
+     *
+     * @param product the product as written to the database
+     */
+    void index(Product product);
+
+    /**
+     * Removes a deleted product from the index, once the current transaction has committed.
+     *
+     * @param id the id of the deleted product
+     */
+    void remove(UUID id);
+}
@@ -0,0 +1,33 @@
+package com.mycompany.product.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits product texts and search queries into the lower case word tokens the search indexes work with.
+ */
+final class ProductSearchTokenizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private ProductSearchTokenizer() {
+    }
+
+    /**
+     * Returns the distinct word tokens of the given text, in order of appearance.
+     *
+     * @param text the text to tokenize, may be {@code null}
+     * @return the tokens
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+            .filter(token -> !token.isEmpty())
+            .distinct()
+            .toList();
+    }
+}
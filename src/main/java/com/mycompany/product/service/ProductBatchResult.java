@@ -0,0 +1,56 @@
+package com.mycompany.product.service;
+
+import com.mycompany.product.model.Product;
+import java.util.UUID;
+
+/**
+ * The {@code ProductBatchResult} record is the outcome of one item of a batch write.
+ *
+ * @param index   the position of the item in the batch
+ * @param id      the id of the product
+ * @param status  the outcome of the item
+ * @param product the written product, if any
+ * @param message why the item was not written, if it failed
+ */
+public record ProductBatchResult(int index, UUID id, Status status, Product product, String message) {
+
+    /**
+     * The outcome of a batch item.
+     */
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, CONFLICT, FAILED
+    }
+
+    static ProductBatchResult created(int index, Product product) {
+        return new ProductBatchResult(index, product.getId(), Status.CREATED, product, null);
+    }
+
+    static ProductBatchResult updated(int index, Product product) {
+        return new ProductBatchResult(index, product.getId(), Status.UPDATED, product, null);
+    }
+
+    static ProductBatchResult deleted(int index, UUID id) {
+        return new ProductBatchResult(index, id, Status.DELETED, null, null);
+    }
+
+    static ProductBatchResult notFound(int index, UUID id) {
+        return new ProductBatchResult(index, id, Status.NOT_FOUND, null, "Product not found");
+    }
+
+    static ProductBatchResult conflict(int index, UUID id, String message) {
+        return new ProductBatchResult(index, id, Status.CONFLICT, null, message);
+    }
+
+    static ProductBatchResult failed(int index, UUID id, String message) {
+        return new ProductBatchResult(index, id, Status.FAILED, null, message);
+    }
+
+    /**
+     * Tells whether the item was written.
+     *
+     * @return true if the product was created, updated or deleted
+     */
+    public boolean successful() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
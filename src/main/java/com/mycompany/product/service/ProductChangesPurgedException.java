@@ -0,0 +1,23 @@
+package com.mycompany.product.service;
+
+import lombok.Getter;
+
+/**
+ * The {@code ProductChangesPurgedException} is thrown when the product change log is read after a sequence number
+ * whose successors have already been deleted by the retention, so the changes that could be returned would leave
+ * out some of the changes the caller has not seen. The caller has to re-read the catalog and can then resume
+ * after {@link #getLastSequence()}, read before the catalog.
+ */
+@Getter
+public class ProductChangesPurgedException extends RuntimeException {
+
+    /**
+     * The highest sequence number assigned when the request was rejected.
+     */
+    private final long lastSequence;
+
+    public ProductChangesPurgedException(long since, long firstSequence, long lastSequence) {
+        super("The product changes after " + since + " are no longer kept, the oldest kept is " + firstSequence);
+        this.lastSequence = lastSequence;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.product.service;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.ProductCount;
+import com.mycompany.product.model.ProductCountStripe;
+import com.mycompany.product.repository.ProductCountRepository;
+import com.mycompany.product.repository.ProductRepository;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code ProductCounter} maintains the number of products, so that a total can be given without a
+ * {@code COUNT(*)} over the product table.
+ * <p>
+ * The count is striped over {@code product.count.stripes} rows of {@link ProductCountStripe}: a write adds to a
+ * random stripe within its own transaction and the exact total is the sum of the stripes. The stripes are
+ * created before the application takes requests; the first instance to start counts the products once to
+ * seed them. An estimated total is read from the planner statistics of PostgreSQL instead, which cost no
+ * query of the table at all, and falls back to the exact total on other databases.
+ * </p>
+ * <p>
+ * Writes that are not counted make the stripes drift from the table: those of instances still running an older
+ * release during a rollout, and those committed between the seeding count and the creation of the stripes.
+ * Every {@code product.count.reconcile-interval} the count is therefore corrected to a {@code COUNT(*)} of the
+ * table, taken while all stripes are locked so that no counted write is missed or counted twice.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCounter implements SmartInitializingSingleton, SmartLifecycle {
+
+    private static final String ESTIMATE = "select reltuples::bigint from pg_class where oid = to_regclass('product')";
+
+    private final ProductCountRepository productCountRepository;
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JdbcClient jdbcClient;
+
+    private final DataSource dataSource;
+
+    private final ProductProperties productProperties;
+
+    private boolean postgres;
+
+    private ScheduledExecutorService reconciler;
+
+    /**
+     * Creates the missing stripes. Runs once all singletons, including the initialization of the database
+     * schema, are ready and before the web server starts.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        postgres = isPostgres();
+        int stripes = productProperties.getCount().getStripes();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Integer> existing = productCountRepository.findAll().stream()
+                    .map(ProductCountStripe::getStripe)
+                    .collect(Collectors.toSet());
+                long seed = existing.isEmpty() ? productRepository.count() : 0;
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    if (!existing.contains(stripe)) {
+                        productCountRepository.save(new ProductCountStripe(stripe, stripe == 0 ? seed : 0));
+                    }
+                }
+                if (existing.isEmpty()) {
+                    log.info("Initialized the product counter with {} products in {} stripes", seed, stripes);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("The product counter stripes were created concurrently by another instance");
+        }
+    }
+
+    /**
+     * Adds to the number of products. Must be called in the transaction that creates or deletes the products.
+     *
+     * @param delta the products created, negative for products deleted
+     */
+    public void add(long delta) {
+        if (delta == 0) {
+            return;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(productProperties.getCount().getStripes());
+        if (productCountRepository.add(stripe, delta) == 0) {
+            log.warn("Product count stripe {} does not exist, the count is off by {}", stripe, delta);
+        }
+    }
+
+    /**
+     * Returns the number of products.
+     *
+     * @param estimate whether an estimate is good enough
+     * @return the exact number, or an estimate if asked for and the database keeps one
+     */
+    public ProductCount count(boolean estimate) {
+        if (estimate && postgres) {
+            Optional<Long> estimated = jdbcClient.sql(ESTIMATE).query(Long.class).optional();
+            // A table that was never analyzed has no estimate yet
+            if (estimated.isPresent() && estimated.get() >= 0) {
+                return new ProductCount(estimated.get(), false);
+            }
+        }
+        return new ProductCount(productCountRepository.sum().orElseGet(productRepository::count), true);
+    }
+
+    /**
+     * Corrects the count to the number of products in the table.
+     * <p>
+     * Locking the stripes first waits for the writers that have counted but not yet committed, whose products the
+     * {@code COUNT(*)} then sees, and holds off writers that have not counted yet, whose products it does not see.
+     * </p>
+     *
+     * @return the products the count was off by, negative if it was too high
+     */
+    long reconcile() {
+        return transactionTemplate.execute(status -> {
+            List<ProductCountStripe> stripes = productCountRepository.findAllAndLock();
+            if (stripes.isEmpty()) {
+                return 0L;
+            }
+            long counted = productRepository.count();
+            long drift = counted - stripes.stream().mapToLong(ProductCountStripe::getCount).sum();
+            if (drift != 0) {
+                ProductCountStripe first = stripes.getFirst();
+                first.setCount(first.getCount() + drift);
+                log.warn("Corrected the product count to {} products, it was off by {}", counted, drift);
+            }
+            return drift;
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        Duration interval = productProperties.getCount().getReconcileInterval();
+        if (interval.isZero()) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return reconciler != null;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task, a deadlock with a writer is retried next time
+            log.error("Reconciling the product count failed", e);
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            return "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource,
+                DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not determine the database, product counts will not be estimated", e);
+            return false;
+        }
+    }
+}
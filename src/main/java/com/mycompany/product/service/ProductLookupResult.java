@@ -0,0 +1,14 @@
+package com.mycompany.product.service;
+
+import com.mycompany.product.model.Product;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code ProductLookupResult} record is the outcome of a multi-get lookup.
+ *
+ * @param products the products that were found, in the order of the requested ids
+ * @param missing  the requested ids without a product, in the order of the requested ids
+ */
+public record ProductLookupResult(List<Product> products, List<UUID> missing) {
+}
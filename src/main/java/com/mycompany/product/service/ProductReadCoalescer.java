@@ -0,0 +1,92 @@
+package com.mycompany.product.service;
+
+import com.mycompany.product.concurrency.SingleFlight;
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.datasource.ReadYourWrites;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code ProductReadCoalescer} lets concurrent identical reads of the product service share one database
+ * load: reads of the same product id, of the same offset page and of the same keyset page.
+ * <p>
+ * When a popular product is updated or its cache entry expires, all requests for it miss the cache at once.
+ * Coalesced, they wait for the one load in flight instead of each taking a connection from the pool. Every
+ * caller gets its own copy of the loaded products. Coalescing is switched off with
+ * {@code product.single-flight.enabled=false}.
+ * </p>
+ * <p>
+ * Reads pinned to the primary by {@link ReadYourWrites} are never coalesced, as the load in flight may read a
+ * replica that has not seen the client's own writes yet.
+ * </p>
+ */
+@Component
+public class ProductReadCoalescer {
+
+    private final boolean enabled;
+
+    private final SingleFlight<UUID, Optional<Product>> products;
+
+    private final SingleFlight<Pageable, Slice<Product>> pages;
+
+    private final SingleFlight<ProductQuery, Slice<Product>> slices;
+
+    public ProductReadCoalescer(ProductProperties properties, MeterRegistry meterRegistry) {
+        ProductProperties.SingleFlight settings = properties.getSingleFlight();
+        this.enabled = settings.isEnabled();
+        this.products = new SingleFlight<>("product", settings.getTimeout(),
+            product -> product.map(ProductReadCoalescer::copy), meterRegistry);
+        this.pages = new SingleFlight<>("page", settings.getTimeout(),
+            page -> page.map(ProductReadCoalescer::copy), meterRegistry);
+        this.slices = new SingleFlight<>("slice", settings.getTimeout(),
+            slice -> slice.map(ProductReadCoalescer::copy), meterRegistry);
+    }
+
+    /**
+     * Loads a product, or waits for the load of the same product in flight.
+     *
+     * @param id     the UUID of the product
+     * @param loader loads the product from the database
+     * @return an Optional containing the product, or empty if not found
+     */
+    public Optional<Product> product(UUID id, Supplier<Optional<Product>> loader) {
+        return coalesces() ? products.load(id, loader) : loader.get();
+    }
+
+    /**
+     * Loads an offset page of products, or waits for the load of the same page in flight.
+     *
+     * @param pageable the position, size and order of the page
+     * @param loader   loads the page from the database
+     * @return the page
+     */
+    public Slice<Product> page(Pageable pageable, Supplier<Slice<Product>> loader) {
+        return coalesces() ? pages.load(pageable, loader) : loader.get();
+    }
+
+    /**
+     * Loads a keyset page of products, or waits for the load of the same page in flight.
+     *
+     * @param query  the ordering, price range, position and size of the page
+     * @param loader loads the page from the database
+     * @return the page
+     */
+    public Slice<Product> slice(ProductQuery query, Supplier<Slice<Product>> loader) {
+        return coalesces() ? slices.load(query, loader) : loader.get();
+    }
+
+    private boolean coalesces() {
+        return enabled && !ReadYourWrites.isPinned();
+    }
+
+    private static Product copy(Product product) {
+        return product.toBuilder().build();
+    }
+}
@@ -1,10 +1,21 @@
 package com.mycompany.product.service;
 
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductCount;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductKey;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductUpdate;
+import com.mycompany.product.model.ProductVersion;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * The {@code ProductService} interface defines the contract for managing products.
@@ -16,12 +27,50 @@ import org.springframework.data.domain.Pageable;
 public interface ProductService {
 
     /**
-     * Retrieves all products with pagination support.
+     * Retrieves all products with pagination support, without counting the total.
      *
      * @param pageable the pagination information
-     * @return a {@link Page} of {@link Product} objects
+     * @return a {@link Slice} of {@link Product} objects
      */
-    Page<Product> getAllProducts(Pageable pageable);
+    Slice<Product> getAllProducts(Pageable pageable);
+
+    /**
+     * Retrieves products with cursor (keyset) pagination, optionally restricted to a price range.
+     * Unlike {@link #getAllProducts(Pageable)} the cost of a page does not grow with its depth.
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a {@link Slice} of {@link Product} objects
+     */
+    Slice<Product> getProducts(ProductQuery query);
+
+    /**
+     * Retrieves the products {@link #getAllProducts(Pageable)} returns, reading only the selected fields from the
+     * database. Fields that are not selected may be {@code null}.
+     *
+     * @param pageable the pagination information
+     * @param fields   the fields to read
+     * @return a {@link Slice} of partial {@link Product} objects
+     */
+    Slice<Product> getAllProducts(Pageable pageable, Set<ProductField> fields);
+
+    /**
+     * Retrieves the products {@link #getProducts(ProductQuery)} returns, reading only the selected fields from the
+     * database. Fields that are not selected may be {@code null}.
+     *
+     * @param query  the ordering, price range, position and size of the page
+     * @param fields the fields to read
+     * @return a {@link Slice} of partial {@link Product} objects
+     */
+    Slice<Product> getProducts(ProductQuery query, Set<ProductField> fields);
+
+    /**
+     * Searches products by the words, or prefixes of words, of their name and description.
+     *
+     * @param query    the search query
+     * @param pageable the page of the ranked results to return
+     * @return a {@link Slice} of {@link Product} objects, best match first
+     */
+    Slice<Product> searchProducts(String query, Pageable pageable);
 
     /**
      * Retrieves a product by its unique identifier.
@@ -31,6 +80,71 @@ public interface ProductService {
      */
     Optional<Product> getProductById(UUID id);
 
+    /**
+     * Retrieves a product by its unique identifier, reading only the selected fields from the database.
+     * Fields that are not selected may be {@code null}.
+     *
+     * @param id     the UUID of the product to retrieve
+     * @param fields the fields to read
+     * @return an {@link Optional} containing the found, possibly partial {@link Product}, or empty if not found
+     */
+    Optional<Product> getProductById(UUID id, Set<ProductField> fields);
+
+    /**
+     * Retrieves many products by their unique identifiers in as few queries as possible.
+     * Every requested id is reported once, duplicates are ignored.
+     *
+     * @param ids the UUIDs of the products to retrieve
+     * @return the found {@link Product} objects and the missing ids, both in request order
+     * @throws IllegalArgumentException if more than {@code product.lookup.max-ids} ids are requested
+     */
+    ProductLookupResult lookupProducts(List<UUID> ids);
+
+    /**
+     * Retrieves only the version of a product, for answering conditional requests.
+     *
+     * @param id the UUID of the product
+     * @return an {@link Optional} containing the current version, or empty if not found
+     */
+    Optional<Long> getProductVersion(UUID id);
+
+    /**
+     * Retrieves only the ids and versions of the products {@link #getAllProducts(Pageable)} returns.
+     *
+     * @param pageable the pagination information
+     * @return a {@link Slice} of {@link ProductVersion} objects
+     */
+    Slice<ProductVersion> getProductVersions(Pageable pageable);
+
+    /**
+     * Retrieves only the ids and versions of the products {@link #getProducts(ProductQuery)} returns.
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a {@link Slice} of {@link ProductVersion} objects
+     */
+    Slice<ProductVersion> getProductVersions(ProductQuery query);
+
+    /**
+     * Counts all products from the maintained product counter, without a count query over the products.
+     *
+     * @param estimate whether an estimate of the database planner statistics is good enough
+     * @return the number of products, marked exact or estimated
+     */
+    ProductCount countProducts(boolean estimate);
+
+    /**
+     * Retrieves the entries of the product change log after the given sequence number, in sequence order.
+     * Changes are only returned once they are numbered in commit order, shortly after they committed, so that a
+     * consumer resuming after the last sequence number it has seen never skips a change.
+     *
+     * @param since      the last sequence number the caller has seen, 0 to start from the beginning of the log
+     * @param maxResults the maximum number of changes to return
+     * @return a {@link Slice} of {@link ProductChange} objects
+     * @throws IllegalArgumentException      if maxResults is not between 1 and {@code product.changes.max-results}
+     * @throws ProductChangesPurgedException if changes after {@code since} have been deleted by the retention
+     */
+    Slice<ProductChange> getProductChanges(long since, int maxResults);
+
     /**
      * Creates a new product and saves it to the repository.
      *
@@ -49,10 +163,78 @@ public interface ProductService {
      */
     Optional<Product> updateProduct(Product updatedProduct);
 
+    /**
+     * Updates an existing product if it still has the expected version.
+     * The update is applied with a single conditional statement and increments the version.
+     *
+     * @param updatedProduct  the product containing updated information
+     * @param expectedVersion the version the stored product is expected to have
+     * @return an {@link Optional} containing the updated {@link Product}, or empty if not found
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the product has another version
+     */
+    Optional<Product> updateProduct(Product updatedProduct, long expectedVersion);
+
     /**
      * Deletes a product by its unique identifier.
      *
      * @param id the UUID of the product to delete
+     * @return true if the product was deleted, false if not found
      */
     public boolean deleteProduct(UUID id);
+
+    /**
+     * Deletes a product by its unique identifier if it still has the expected version.
+     *
+     * @param id              the UUID of the product to delete
+     * @param expectedVersion the version the stored product is expected to have
+     * @return true if the product was deleted, false if not found
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the product has another version
+     */
+    boolean deleteProduct(UUID id, long expectedVersion);
+
+    /**
+     * Creates the given products in chunked transactions using JDBC batching.
+     *
+     * @param products the products to create
+     * @return the outcome of every product, in input order
+     */
+    List<ProductBatchResult> createProducts(List<Product> products);
+
+    /**
+     * Updates the given products in chunked transactions using JDBC batching.
+     * Updates whose expected version does not match the stored version are reported as conflicts.
+     *
+     * @param updates the updates to apply
+     * @return the outcome of every update, in input order
+     */
+    List<ProductBatchResult> updateProducts(List<ProductUpdate> updates);
+
+    /**
+     * Sets the prices of the given products in chunked transactions using JDBC batching.
+     * When a product appears more than once, the last price wins.
+     *
+     * @param prices the new prices
+     * @return the outcome of every price, in input order
+     */
+    List<ProductBatchResult> updatePrices(List<ProductPrice> prices);
+
+    /**
+     * Deletes the given products in chunked transactions using JDBC batching.
+     * Keys whose version does not match the stored version are reported as conflicts.
+     *
+     * @param keys the ids, and optionally the expected versions, of the products to delete
+     * @return the outcome of every delete, in input order
+     */
+    List<ProductBatchResult> deleteProducts(List<ProductKey> keys);
+
+    /**
+     * Streams all products ordered by id to the given consumer, in a single read-only transaction.
+     * Products are read through a database cursor and detached as they go, so memory use does not depend
+     * on the size of the catalog.
+     *
+     * @param after    the id of the last product already received, or {@code null} to start from the beginning
+     * @param consumer receives every product
+     * @return the number of exported products
+     */
+    long exportProducts(UUID after, Consumer<Product> consumer);
 }
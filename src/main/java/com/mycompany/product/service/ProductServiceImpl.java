@@ -1,23 +1,57 @@
 package com.mycompany.product.service;
 
+import com.mycompany.product.cache.ProductCache;
+import com.mycompany.product.config.ProductProperties;
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductCount;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductKey;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductUpdate;
+import com.mycompany.product.model.ProductVersion;
+import com.mycompany.product.repository.ProductChangeRepository;
 import com.mycompany.product.repository.ProductRepository;
+import com.mycompany.product.search.ProductSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service class for managing products.
  *This class provides methods to create, retrieve, update, and delete products.
  * It acts as a bridge between the controller layer and the data repository,
  * encapsulating the business logic and providing centralized exception handling.
+ * Every public method is timed as {@code product.service}, tagged with the method name.
+ * Every write records a {@link ProductChange} in the same transaction, feeding the product change log.
+ * Reads run in read-only transactions, which are served by a read replica when replicas are configured.
  */
 @Service
+@Timed(value = "product.service", description = "Time spent in the product service")
 @RequiredArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements ProductService {
@@ -25,36 +59,290 @@ public class ProductServiceImpl implements ProductService {
     @NonNull
     private final ProductRepository productRepository;
 
+    @NonNull
+    private final ProductChangeRepository productChangeRepository;
+
+    @NonNull
+    private final ProductCache productCache;
+
+    @NonNull
+    private final ProductSearchIndex productSearchIndex;
+
+    @NonNull
+    private final TransactionTemplate transactionTemplate;
+
+    @NonNull
+    private final ProductProperties productProperties;
+
+    @NonNull
+    private final ProductReadCoalescer productReadCoalescer;
+
+    @NonNull
+    private final ProductCounter productCounter;
+
     /**
-     * Retrieves all products from the repository.
+     * Retrieves all products from the repository, without counting the total.
+     * Concurrent requests for the same page share one load, which runs in the read-only transaction of the
+     * repository, so requests waiting for it do not hold a connection.
      *
-     * @return a list of all products
+     * @return a slice of products
      */
-    public Page<Product> getAllProducts(Pageable pageable) {
+    public Slice<Product> getAllProducts(Pageable pageable) {
         log.info("Retrieving all products");
-        return productRepository.findAll(pageable);
+        return productReadCoalescer.page(pageable, () -> productRepository.findAllBy(pageable));
+    }
+
+    /**
+     * Retrieves a page of products after the given cursor, without counting the total.
+     * Concurrent requests for the same page share one load, which runs in the read-only transaction of the
+     * repository.
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a slice of products
+     */
+    public Slice<Product> getProducts(ProductQuery query) {
+        log.info("Retrieving products for {}", query);
+        return productReadCoalescer.slice(query, () -> productRepository.findSlice(query));
+    }
+
+    /**
+     * Retrieves a page of products reading only the selected columns, without counting the total.
+     * Partial products are neither cached nor coalesced with the loads of full pages.
+     *
+     * @param pageable the pagination information
+     * @param fields   the fields to read
+     * @return a slice of partial products
+     */
+    public Slice<Product> getAllProducts(Pageable pageable, Set<ProductField> fields) {
+        log.info("Retrieving all products with fields {}", fields);
+        return productRepository.findProjected(pageable, fields);
+    }
+
+    /**
+     * Retrieves a page of products after the given cursor reading only the selected columns, without counting
+     * the total.
+     *
+     * @param query  the ordering, price range, position and size of the page
+     * @param fields the fields to read
+     * @return a slice of partial products
+     */
+    public Slice<Product> getProducts(ProductQuery query, Set<ProductField> fields) {
+        log.info("Retrieving products for {} with fields {}", query, fields);
+        return productRepository.findProjectedSlice(query, fields);
+    }
+
+    /**
+     * Searches products through the search index and loads the matches in rank order.
+     *
+     * @param query    the search query
+     * @param pageable the page of the ranked results to return
+     * @return a slice of products, best match first
+     */
+    @Transactional(readOnly = true)
+    public Slice<Product> searchProducts(String query, Pageable pageable) {
+        log.info("Searching products for: {}", query);
+        Slice<UUID> ids = productSearchIndex.search(query, pageable);
+        Map<UUID, Product> products = findAllById(ids.getContent());
+        // A product deleted since it was ranked is left out rather than failing the search
+        List<Product> ranked = ids.getContent().stream().map(products::get).filter(Objects::nonNull).toList();
+        return new SliceImpl<>(ranked, pageable, ids.hasNext());
+    }
+
+    /**
+     * Streams all products ordered by id to the given consumer.
+     *
+     * @param after    the id of the last product already received, or null to start from the beginning
+     * @param consumer receives every product
+     * @return the number of exported products
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(UUID after, Consumer<Product> consumer) {
+        log.info("Exporting products after ID: {}", after);
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAfter(after,
+            productProperties.getExport().getFetchSize())) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                consumer.accept(product);
+                count++;
+            }
+        }
+        log.info("Exported {} products", count);
+        return count;
     }
 
     /**
      * Retrieves a product by its unique identifier.
+     * The product is served from the read cache when possible and cached after a database load.
+     * No transaction is opened here, so a cache hit does not pay for one; the load runs in the read-only
+     * transaction of the repository. Concurrent misses for the same product share one load.
      *
      * @param id the UUID of the product to retrieve
      * @return an Optional containing the found product, or empty if not found
      */
     public Optional<Product> getProductById(UUID id) {
         log.info("Retrieving product with ID: {}", id);
-        return productRepository.findById(id);
+        return productCache.get(id).or(() -> productReadCoalescer.product(id, () -> {
+            Optional<Product> product = productRepository.findById(id);
+            product.ifPresent(productCache::put);
+            return product;
+        }));
+    }
+
+    /**
+     * Retrieves a product by its unique identifier, reading only the selected columns.
+     * A cached product is served whole, as it costs no query; on a miss only the selected columns are loaded
+     * and the partial product is not cached.
+     *
+     * @param id     the UUID of the product to retrieve
+     * @param fields the fields to read
+     * @return an Optional containing the found, possibly partial product, or empty if not found
+     */
+    public Optional<Product> getProductById(UUID id, Set<ProductField> fields) {
+        log.info("Retrieving product with ID: {} and fields {}", id, fields);
+        return productCache.get(id).or(() -> productRepository.findProjectedById(id, fields));
+    }
+
+    /**
+     * Retrieves many products by their unique identifiers.
+     * Cached products are served from the read cache. The others are loaded with IN-list queries of at most
+     * {@code product.lookup.chunk-size} ids each and put into the cache, like a single product load would.
+     *
+     * @param ids the UUIDs of the products to retrieve
+     * @return the found products and the missing ids, both in request order
+     * @throws IllegalArgumentException if more than {@code product.lookup.max-ids} ids are requested
+     */
+    @Transactional(readOnly = true)
+    public ProductLookupResult lookupProducts(List<UUID> ids) {
+        ProductProperties.Lookup settings = productProperties.getLookup();
+        if (ids.size() > settings.getMaxIds()) {
+            throw new IllegalArgumentException(
+                "At most " + settings.getMaxIds() + " products can be looked up at once, got " + ids.size());
+        }
+        List<UUID> distinctIds = ids.stream().distinct().toList();
+        log.info("Looking up {} products", distinctIds.size());
+
+        Map<UUID, Product> products = new HashMap<>(distinctIds.size());
+        List<UUID> uncachedIds = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            productCache.get(id).ifPresentOrElse(product -> products.put(id, product), () -> uncachedIds.add(id));
+        }
+        for (int from = 0; from < uncachedIds.size(); from += settings.getChunkSize()) {
+            List<UUID> chunk = uncachedIds.subList(from, Math.min(from + settings.getChunkSize(), uncachedIds.size()));
+            findAllById(chunk).forEach((id, product) -> {
+                productCache.put(product);
+                products.put(id, product);
+            });
+        }
+
+        List<Product> found = new ArrayList<>(products.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            Product product = products.get(id);
+            if (product != null) {
+                found.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        log.info("Looked up {} products, {} cached, {} missing", found.size(),
+            distinctIds.size() - uncachedIds.size(), missing.size());
+        return new ProductLookupResult(found, missing);
+    }
+
+    /**
+     * Retrieves only the version of a product.
+     * The version is taken from the read cache when possible, otherwise only the version column is queried,
+     * in the read-only transaction of the repository.
+     *
+     * @param id the UUID of the product
+     * @return an Optional containing the current version, or empty if not found
+     */
+    public Optional<Long> getProductVersion(UUID id) {
+        log.info("Retrieving version of product with ID: {}", id);
+        return productCache.getVersion(id).or(() -> productRepository.findVersionById(id));
+    }
+
+    /**
+     * Retrieves only the ids and versions of a page of products.
+     *
+     * @param pageable the pagination information
+     * @return a slice of product versions
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductVersion> getProductVersions(Pageable pageable) {
+        log.info("Retrieving product versions");
+        return productRepository.findVersions(pageable);
+    }
+
+    /**
+     * Retrieves only the ids and versions of a page of products after the given cursor.
+     *
+     * @param query the ordering, price range, position and size of the page
+     * @return a slice of product versions
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductVersion> getProductVersions(ProductQuery query) {
+        log.info("Retrieving product versions for {}", query);
+        return productRepository.findVersionSlice(query);
+    }
+
+    /**
+     * Counts all products from the striped product counter, or from the planner statistics when an estimate is
+     * good enough.
+     *
+     * @param estimate whether an estimate is good enough
+     * @return the number of products, marked exact or estimated
+     */
+    public ProductCount countProducts(boolean estimate) {
+        log.info("Counting products");
+        return productCounter.count(estimate);
+    }
+
+    /**
+     * Retrieves the numbered changes after the given sequence number. The changes are always read from the
+     * primary, where they are numbered, so a consumer is never sent back behind a position it has seen.
+     *
+     * @param since      the last sequence number the caller has seen
+     * @param maxResults the maximum number of changes to return
+     * @return a slice of changes in sequence order
+     * @throws IllegalArgumentException      if maxResults is not between 1 and {@code product.changes.max-results}
+     * @throws ProductChangesPurgedException if changes after {@code since} have been deleted by the retention
+     */
+    public Slice<ProductChange> getProductChanges(long since, int maxResults) {
+        ProductProperties.Changes settings = productProperties.getChanges();
+        if (maxResults < 1 || maxResults > settings.getMaxResults()) {
+            throw new IllegalArgumentException(
+                "maxResults must be between 1 and " + settings.getMaxResults() + ", got " + maxResults);
+        }
+        log.info("Retrieving product changes after {}", since);
+        Slice<ProductChange> changes = productChangeRepository.findAfter(since, PageRequest.of(0, maxResults));
+        // Checked after the read, so that a deletion the read may have missed changes after is noticed
+        long firstSequence = productChangeRepository.findFirstSequence().orElse(1L);
+        if (since < firstSequence - 1) {
+            throw new ProductChangesPurgedException(since, firstSequence,
+                productChangeRepository.findLastSequence().orElse(firstSequence));
+        }
+        return changes;
     }
 
     /**
      * Creates a new product and saves it to the repository.
+     * The id is always generated and the version starts at 0, whatever the given product carries.
      *
      * @param product the product to create
      * @return the created product
      */
+    @Transactional
     public Product createProduct(Product product) {
         log.info("Creating new product with name: {}", product.getName());
-        return productRepository.save(product);
+        product.setId(null);
+        product.setVersion(0);
+        product.setPrice(Product.storedPrice(product.getPrice()));
+        Product savedProduct = productRepository.save(product);
+        productChangeRepository.save(ProductChange.created(savedProduct));
+        productCounter.add(1);
+        productSearchIndex.index(savedProduct);
+        return savedProduct;
     }
 
     /**
@@ -65,6 +353,7 @@ public class ProductServiceImpl implements ProductService {
      * @param updatedProduct the product containing updated information
      * @return an Optional containing the updated product, or empty if not found
      */
+    @Transactional
     public Optional<Product> updateProduct(Product updatedProduct) {
         log.info("Updating product with ID: {}", updatedProduct.getId());
         return productRepository.findById(updatedProduct.getId())
@@ -72,25 +361,340 @@ public class ProductServiceImpl implements ProductService {
                 log.info("Product found. Updating product with ID: {}", updatedProduct.getId());
                 existingProduct.setName(updatedProduct.getName());
                 existingProduct.setDescription(updatedProduct.getDescription());
-                existingProduct.setPrice(updatedProduct.getPrice());
-                return Optional.of(productRepository.save(existingProduct));
+                existingProduct.setPrice(Product.storedPrice(updatedProduct.getPrice()));
+                Product savedProduct = productRepository.save(existingProduct);
+                // The flush increments the version, which the change records
+                productRepository.flushAndClear();
+                productChangeRepository.save(ProductChange.updated(savedProduct));
+                productCache.update(savedProduct);
+                productSearchIndex.index(savedProduct);
+                return Optional.of(savedProduct);
             }).orElseGet(() -> {
                 log.warn("Product with ID: {} not found", updatedProduct.getId());
                 return Optional.empty();
             });
     }
 
+    /**
+     * Updates an existing product if it still has the expected version.
+     * The fast path is a single conditional UPDATE; only when no row matched is the existence of the
+     * product checked, to tell a missing product from a version conflict.
+     *
+     * @param updatedProduct  the product containing updated information
+     * @param expectedVersion the version the stored product is expected to have
+     * @return an Optional containing the updated product, or empty if not found
+     * @throws OptimisticLockingFailureException if the product has another version
+     */
+    @Transactional
+    public Optional<Product> updateProduct(Product updatedProduct, long expectedVersion) {
+        UUID id = updatedProduct.getId();
+        log.info("Updating product with ID: {} at version {}", id, expectedVersion);
+        BigDecimal price = Product.storedPrice(updatedProduct.getPrice());
+        int updatedRows = productRepository.updateIfVersion(id, updatedProduct.getName(),
+            updatedProduct.getDescription(), price, expectedVersion);
+        if (updatedRows == 0) {
+            if (!productRepository.existsById(id)) {
+                log.warn("Product with ID: {} not found", id);
+                return Optional.empty();
+            }
+            log.warn("Product with ID: {} does not have version {}", id, expectedVersion);
+            throw new OptimisticLockingFailureException(
+                "Product " + id + " does not have version " + expectedVersion);
+        }
+        Product savedProduct = updatedProduct.toBuilder().price(price).version(expectedVersion + 1).build();
+        productChangeRepository.save(ProductChange.updated(savedProduct));
+        productCache.update(savedProduct);
+        productSearchIndex.index(savedProduct);
+        return Optional.of(savedProduct);
+    }
+
     /**
      * Deletes a product by its unique identifier.
-     * If the product is not found, a RuntimeException is thrown.
+     * A single DELETE statement is issued and its row count tells whether the product existed.
      *
      * @param id the UUID of the product to delete
+     * @return true if the product was deleted, false if not found
      */
+    @Transactional
     public boolean deleteProduct(UUID id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
+        log.info("Deleting product with ID: {}", id);
+        if (productRepository.deleteIfExists(id) == 0) {
+            log.warn("Product with ID: {} not found", id);
+            return false;
+        }
+        productChangeRepository.save(ProductChange.deleted(id));
+        productCounter.add(-1);
+        productCache.evict(id);
+        productSearchIndex.remove(id);
+        return true;
+    }
+
+    /**
+     * Deletes a product by its unique identifier if it still has the expected version.
+     * The fast path is a single conditional DELETE; only when no row matched is the existence of the
+     * product checked, to tell a missing product from a version conflict.
+     *
+     * @param id              the UUID of the product to delete
+     * @param expectedVersion the version the stored product is expected to have
+     * @return true if the product was deleted, false if not found
+     * @throws OptimisticLockingFailureException if the product has another version
+     */
+    @Transactional
+    public boolean deleteProduct(UUID id, long expectedVersion) {
+        log.info("Deleting product with ID: {} at version {}", id, expectedVersion);
+        if (productRepository.deleteIfVersion(id, expectedVersion) == 0) {
+            if (!productRepository.existsById(id)) {
+                log.warn("Product with ID: {} not found", id);
+                return false;
+            }
+            log.warn("Product with ID: {} does not have version {}", id, expectedVersion);
+            throw new OptimisticLockingFailureException(
+                "Product " + id + " does not have version " + expectedVersion);
+        }
+        productChangeRepository.save(ProductChange.deleted(id));
+        productCounter.add(-1);
+        productCache.evict(id);
+        productSearchIndex.remove(id);
+        return true;
+    }
+
+    /**
+     * Creates all given products in chunks, each chunk in its own transaction.
+     * Client supplied ids and versions are ignored, every product gets a generated id.
+     *
+     * @param products the products to create
+     * @return the outcome of every product, in input order
+     */
+    public List<ProductBatchResult> createProducts(List<Product> products) {
+        log.info("Creating {} products in batch", products.size());
+        return writeInChunks(products, Product::getId, this::createChunk);
+    }
+
+    /**
+     * Updates all given products in chunks, each chunk in its own transaction.
+     * An update carrying an expected version is reported as a conflict if the stored version differs.
+     *
+     * @param updates the updates to apply
+     * @return the outcome of every update, in input order
+     */
+    public List<ProductBatchResult> updateProducts(List<ProductUpdate> updates) {
+        log.info("Updating {} products in batch", updates.size());
+        return writeInChunks(updates, update -> update.product().getId(), this::updateChunk);
+    }
+
+    /**
+     * Sets the prices of the given products in chunks, each chunk in its own transaction.
+     * The prices are applied to the loaded products and written by the versioned, batched UPDATE statements of
+     * the flush, so every written product gets a new version.
+     *
+     * @param prices the new prices
+     * @return the outcome of every price, in input order
+     */
+    public List<ProductBatchResult> updatePrices(List<ProductPrice> prices) {
+        log.info("Updating {} prices in batch", prices.size());
+        return writeInChunks(prices, ProductPrice::id, this::priceChunk);
+    }
+
+    /**
+     * Deletes all given products in chunks, each chunk in its own transaction.
+     * A key carrying a version is reported as a conflict if the stored version differs.
+     *
+     * @param keys the ids, and optionally the expected versions, of the products to delete
+     * @return the outcome of every delete, in input order
+     */
+    public List<ProductBatchResult> deleteProducts(List<ProductKey> keys) {
+        log.info("Deleting {} products in batch", keys.size());
+        return writeInChunks(keys, ProductKey::id, this::deleteChunk);
+    }
+
+    private List<ProductBatchResult> createChunk(List<Product> products, int offset) {
+        products.forEach(product -> {
+            product.setId(null);
+            product.setVersion(0);
+            product.setPrice(Product.storedPrice(product.getPrice()));
+        });
+        productRepository.saveAll(products);
+        productRepository.flushAndClear();
+
+        List<ProductBatchResult> results = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            results.add(ProductBatchResult.created(offset + i, products.get(i)));
+            productSearchIndex.index(products.get(i));
+        }
+        productChangeRepository.saveAll(products.stream().map(ProductChange::created).toList());
+        productCounter.add(products.size());
+        return results;
+    }
+
+    private List<ProductBatchResult> updateChunk(List<ProductUpdate> updates, int offset) {
+        Map<UUID, Product> existingProducts = findAllById(updates.stream()
+            .map(update -> update.product().getId())
+            .distinct()
+            .toList());
+        Map<UUID, Long> loadedVersions = versionsOf(existingProducts);
+
+        List<ProductBatchResult> results = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            Product updatedProduct = updates.get(i).product();
+            Long expectedVersion = updates.get(i).expectedVersion();
+            Product existingProduct = existingProducts.get(updatedProduct.getId());
+            if (existingProduct == null) {
+                results.add(ProductBatchResult.notFound(offset + i, updatedProduct.getId()));
+            } else if (expectedVersion != null && expectedVersion != existingProduct.getVersion()) {
+                results.add(ProductBatchResult.conflict(offset + i, updatedProduct.getId(),
+                    versionMismatch(expectedVersion, existingProduct.getVersion())));
+            } else {
+                existingProduct.setName(updatedProduct.getName());
+                existingProduct.setDescription(updatedProduct.getDescription());
+                existingProduct.setPrice(Product.storedPrice(updatedProduct.getPrice()));
+                results.add(ProductBatchResult.updated(offset + i, existingProduct));
+            }
+        }
+        // The flush issues the batched, version checked UPDATE statements and increments the versions
+        productRepository.flushAndClear();
+        List<Product> updatedProducts = results.stream()
+            .map(ProductBatchResult::product)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        incrementUnchangedVersions(updatedProducts, loadedVersions);
+        productChangeRepository.saveAll(updatedProducts.stream().map(ProductChange::updated).toList());
+        updatedProducts.forEach(product -> {
+            productCache.update(product);
+            productSearchIndex.index(product);
+        });
+        return results;
+    }
+
+    private List<ProductBatchResult> priceChunk(List<ProductPrice> prices, int offset) {
+        Map<UUID, Product> existingProducts = findAllById(prices.stream().map(ProductPrice::id).distinct().toList());
+        Map<UUID, Long> loadedVersions = versionsOf(existingProducts);
+
+        List<ProductBatchResult> results = new ArrayList<>(prices.size());
+        for (int i = 0; i < prices.size(); i++) {
+            ProductPrice price = prices.get(i);
+            Product existingProduct = existingProducts.get(price.id());
+            if (existingProduct == null) {
+                results.add(ProductBatchResult.notFound(offset + i, price.id()));
+            } else {
+                existingProduct.setPrice(Product.storedPrice(price.price()));
+                results.add(ProductBatchResult.updated(offset + i, existingProduct));
+            }
+        }
+        productRepository.flushAndClear();
+        List<Product> updatedProducts = results.stream()
+            .map(ProductBatchResult::product)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        incrementUnchangedVersions(updatedProducts, loadedVersions);
+        productChangeRepository.saveAll(updatedProducts.stream().map(ProductChange::updated).toList());
+        updatedProducts.forEach(product -> {
+            productCache.update(product);
+            productSearchIndex.index(product);
+        });
+        return results;
+    }
+
+    private List<ProductBatchResult> deleteChunk(List<ProductKey> keys, int offset) {
+        Map<UUID, Product> existingProducts = findAllById(keys.stream().map(ProductKey::id).toList());
+
+        List<ProductBatchResult> results = new ArrayList<>(keys.size());
+        List<Product> deletedProducts = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            ProductKey key = keys.get(i);
+            Product existingProduct = existingProducts.remove(key.id());
+            if (existingProduct == null) {
+                results.add(ProductBatchResult.notFound(offset + i, key.id()));
+            } else if (key.version() != null && key.version() != existingProduct.getVersion()) {
+                results.add(ProductBatchResult.conflict(offset + i, key.id(),
+                    versionMismatch(key.version(), existingProduct.getVersion())));
+            } else {
+                deletedProducts.add(existingProduct);
+                results.add(ProductBatchResult.deleted(offset + i, key.id()));
+            }
+        }
+        productRepository.deleteAll(deletedProducts);
+        productRepository.flushAndClear();
+        productChangeRepository.saveAll(deletedProducts.stream()
+            .map(product -> ProductChange.deleted(product.getId()))
+            .toList());
+        productCounter.add(-deletedProducts.size());
+        deletedProducts.forEach(product -> {
+            productCache.evict(product.getId());
+            productSearchIndex.remove(product.getId());
+        });
+        return results;
+    }
+
+    /**
+     * Increments the version of the products the flush did not write because none of their values changed,
+     * so that a batch update always yields a new version, just like a single update.
+     */
+    private void incrementUnchangedVersions(List<Product> products, Map<UUID, Long> loadedVersions) {
+        for (Product product : products) {
+            long loadedVersion = loadedVersions.get(product.getId());
+            if (product.getVersion() != loadedVersion) {
+                continue;
+            }
+            if (productRepository.updateIfVersion(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), loadedVersion) == 0) {
+                throw new OptimisticLockingFailureException(
+                    "Product " + product.getId() + " does not have version " + loadedVersion);
+            }
+            product.setVersion(loadedVersion + 1);
+        }
+    }
+
+    private static Map<UUID, Long> versionsOf(Map<UUID, Product> products) {
+        return products.values().stream().collect(Collectors.toMap(Product::getId, Product::getVersion));
+    }
+
+    private Map<UUID, Product> findAllById(List<UUID> ids) {
+        return productRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private static String versionMismatch(long expectedVersion, long actualVersion) {
+        return "Expected version " + expectedVersion + " but found " + actualVersion;
+    }
+
+    /**
+     * Writes the items in chunks of {@code product.batch.chunk-size}, each chunk in its own transaction.
+     * When a chunk fails as a whole, for instance because a concurrent writer changed one of its products
+     * between the read and the batched write, the chunk is rolled back and retried item by item so that
+     * the failure is attributed to the right items.
+     */
+    private <T> List<ProductBatchResult> writeInChunks(List<T> items, Function<T, UUID> idOf,
+                                                       BiFunction<List<T>, Integer, List<ProductBatchResult>> writer) {
+        int chunkSize = productProperties.getBatch().getChunkSize();
+        List<ProductBatchResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            int offset = from;
+            try {
+                results.addAll(transactionTemplate.execute(status -> writer.apply(chunk, offset)));
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk starting at index {} failed, retrying its items one by one: {}",
+                    offset, e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(writeSingle(chunk.get(i), offset + i, idOf, writer));
+                }
+            }
+        }
+        return results;
+    }
+
+    private <T> ProductBatchResult writeSingle(T item, int index, Function<T, UUID> idOf,
+                                               BiFunction<List<T>, Integer, List<ProductBatchResult>> writer) {
+        try {
+            return transactionTemplate.execute(status -> writer.apply(List.of(item), index)).getFirst();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Batch item {} with ID: {} was modified concurrently", index, idOf.apply(item));
+            return ProductBatchResult.conflict(index, idOf.apply(item), "Product was modified concurrently");
+        } catch (RuntimeException e) {
+            log.error("Batch item {} with ID: {} failed", index, idOf.apply(item), e);
+            return ProductBatchResult.failed(index, idOf.apply(item), e.getMessage());
         }
-        return false;
     }
-}
\ No newline at end of file
+}
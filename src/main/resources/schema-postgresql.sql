@@ -0,0 +1,34 @@
+-- Full-text index behind the product search (product.search.engine=postgres).
+-- The expression must stay identical to PostgresProductSearchIndex.DOCUMENT for the index to be used.
+CREATE INDEX IF NOT EXISTS product_search_idx ON product USING GIN (
+    (setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B'))
+);
+
+-- Price range filters and price ordered keyset pages, mirrors the @Index of Product.
+CREATE INDEX IF NOT EXISTS product_price_idx ON product (price, product_id);
+
+-- Product change log (transactional outbox), mirrors the ProductChange and ProductChangeHead entities.
+-- The increment must match the allocationSize of ProductChange.changeId
+CREATE SEQUENCE IF NOT EXISTS product_change_seq INCREMENT BY 50;
+ALTER SEQUENCE product_change_seq INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS product_change (
+    change_id       BIGINT PRIMARY KEY,
+    sequence_number BIGINT UNIQUE,
+    product_id      UUID        NOT NULL,
+    operation       VARCHAR(16) NOT NULL,
+    version         BIGINT,
+    recorded_at     TIMESTAMP WITH TIME ZONE NOT NULL
+);
+-- The changes the ProductChangeSequencer has yet to number
+CREATE INDEX IF NOT EXISTS product_change_unsequenced_idx ON product_change (change_id)
+    WHERE sequence_number IS NULL;
+CREATE TABLE IF NOT EXISTS product_change_head (
+    id            INTEGER PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+-- Striped product counter, mirrors the ProductCountStripe entity.
+CREATE TABLE IF NOT EXISTS product_count (
+    stripe        INTEGER PRIMARY KEY,
+    product_count BIGINT NOT NULL
+);
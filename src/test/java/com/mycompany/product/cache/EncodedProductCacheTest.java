@@ -0,0 +1,87 @@
+package com.mycompany.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.Product;
+import com.mycompany.product.openapi.model.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedProductCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private ProductProperties properties;
+
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProductProperties();
+        testProduct = new Product();
+        testProduct.setId(UUID.randomUUID());
+        testProduct.setName("Test Product");
+        testProduct.setPrice(BigDecimal.valueOf(100.0));
+        testProduct.setDescription("Test Description");
+        testProduct.setVersion(1);
+    }
+
+    @Test
+    void testGetEncodesEachVersionOnce() throws IOException {
+        EncodedProductCache cache = new EncodedProductCache(properties, objectMapper, new SimpleMeterRegistry());
+        assertTrue(cache.get(testProduct.getId(), 1).isEmpty());
+
+        EncodedProduct encoded = cache.get(testProduct);
+
+        assertSame(encoded, cache.get(testProduct));
+        assertSame(encoded, cache.get(testProduct.getId(), 1).orElseThrow());
+        assertNull(encoded.gzip());
+        ProductDto productDto = objectMapper.readValue(encoded.json(), ProductDto.class);
+        assertEquals(testProduct.getId(), productDto.getId());
+        assertEquals("Test Product", productDto.getName());
+    }
+
+    @Test
+    void testGetEncodesNewVersion() throws IOException {
+        EncodedProductCache cache = new EncodedProductCache(properties, objectMapper, new SimpleMeterRegistry());
+        cache.get(testProduct);
+
+        EncodedProduct encoded = cache.get(testProduct.toBuilder().name("Updated Product").version(2).build());
+
+        assertEquals("Updated Product", objectMapper.readValue(encoded.json(), ProductDto.class).getName());
+        assertTrue(cache.get(testProduct.getId(), 1).isPresent());
+    }
+
+    @Test
+    void testGetCompressesWhenEnabled() throws IOException {
+        properties.getEncodedCache().setGzip(true);
+        EncodedProductCache cache = new EncodedProductCache(properties, objectMapper, new SimpleMeterRegistry());
+
+        EncodedProduct encoded = cache.get(testProduct);
+
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip()))) {
+            assertArrayEquals(encoded.json(), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testZeroSizeDisablesCache() {
+        properties.getEncodedCache().setMaximumSize(DataSize.ofBytes(0));
+
+        EncodedProductCache cache = new EncodedProductCache(properties, objectMapper, new SimpleMeterRegistry());
+
+        assertFalse(cache.isEnabled());
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.product.cache;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.invalidation.LoopbackInvalidationTransport;
+import com.mycompany.product.invalidation.ProductInvalidationBus;
+import com.mycompany.product.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private LoopbackInvalidationTransport transport;
+
+    private ProductCache productCache;
+
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        transport = new LoopbackInvalidationTransport();
+        productCache = newInstanceCache();
+        testProduct = new Product();
+        testProduct.setId(UUID.randomUUID());
+        testProduct.setName("Test Product");
+        testProduct.setPrice(BigDecimal.valueOf(100.0));
+        testProduct.setDescription("Test Description");
+        testProduct.setVersion(1);
+    }
+
+    @Test
+    void testGetReturnsSnapshot() {
+        productCache.put(testProduct);
+        testProduct.setName("Changed After Put");
+
+        Optional<Product> cached = productCache.get(testProduct.getId());
+
+        assertTrue(cached.isPresent());
+        assertEquals("Test Product", cached.get().getName());
+        assertNotSame(cached.get(), productCache.get(testProduct.getId()).orElseThrow());
+    }
+
+    @Test
+    void testPutKeepsNewerVersion() {
+        Product newerProduct = testProduct.toBuilder().name("Updated Product").version(2).build();
+        productCache.put(newerProduct);
+
+        productCache.put(testProduct);
+
+        assertEquals("Updated Product", productCache.get(testProduct.getId()).orElseThrow().getName());
+        assertEquals(2, productCache.get(testProduct.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testEvictBlocksStaleLoads() {
+        productCache.put(testProduct);
+
+        productCache.evict(testProduct.getId());
+        productCache.put(testProduct);
+
+        assertFalse(productCache.get(testProduct.getId()).isPresent());
+    }
+
+    @Test
+    void testGetUnknownProduct() {
+        assertFalse(productCache.get(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    void testUpdateInvalidatesOtherInstances() {
+        ProductCache otherCache = newInstanceCache();
+        otherCache.put(testProduct);
+
+        productCache.update(testProduct.toBuilder().name("Updated Product").version(2).build());
+        otherCache.put(testProduct);
+
+        assertFalse(otherCache.get(testProduct.getId()).isPresent());
+        assertEquals("Updated Product", productCache.get(testProduct.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testOtherInstancesCacheUpdatedVersion() {
+        ProductCache otherCache = newInstanceCache();
+        Product updatedProduct = testProduct.toBuilder().version(2).build();
+
+        productCache.update(updatedProduct);
+        otherCache.put(updatedProduct);
+
+        assertEquals(2, otherCache.get(testProduct.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testEvictInvalidatesOtherInstances() {
+        ProductCache otherCache = newInstanceCache();
+        otherCache.put(testProduct);
+
+        productCache.evict(testProduct.getId());
+        otherCache.put(testProduct);
+
+        assertFalse(otherCache.get(testProduct.getId()).isPresent());
+    }
+
+    @Test
+    void testGapClearsCache() {
+        ProductInvalidationBus bus = new ProductInvalidationBus(transport, new SimpleMeterRegistry());
+        ProductCache cache = new ProductCache(new ProductProperties(), new SimpleMeterRegistry(), bus);
+        bus.start();
+        cache.put(testProduct);
+
+        bus.onGap();
+
+        assertFalse(cache.get(testProduct.getId()).isPresent());
+    }
+
+    /**
+     * Returns a cache standing for one instance, receiving the invalidations of all caches on the transport.
+     */
+    private ProductCache newInstanceCache() {
+        ProductInvalidationBus bus = new ProductInvalidationBus(transport, new SimpleMeterRegistry());
+        ProductCache cache = new ProductCache(new ProductProperties(), new SimpleMeterRegistry(), bus);
+        bus.start();
+        return cache;
+    }
+}
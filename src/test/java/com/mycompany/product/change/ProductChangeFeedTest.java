@@ -0,0 +1,69 @@
+package com.mycompany.product.change;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.repository.ProductChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeRepository productChangeRepository;
+
+    private ProductChangeSequencer productChangeSequencer;
+
+    private ProductChangeFeed productChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        ProductProperties properties = new ProductProperties();
+        // Only the explicit polls of the tests release waiters
+        properties.getChanges().setPollInterval(Duration.ofHours(1));
+        productChangeRepository = mock(ProductChangeRepository.class);
+        productChangeSequencer = mock(ProductChangeSequencer.class);
+        productChangeFeed = new ProductChangeFeed(properties, productChangeRepository, productChangeSequencer,
+            new SimpleMeterRegistry());
+        productChangeFeed.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeFeed.stop();
+    }
+
+    @Test
+    void testPollReleasesWaitersBehindLastChange() throws Exception {
+        CompletableFuture<Void> behind = productChangeFeed.awaitChanges(3);
+        CompletableFuture<Void> upToDate = productChangeFeed.awaitChanges(7);
+        when(productChangeRepository.findLastAfter(3L)).thenReturn(Optional.of(7L));
+
+        productChangeFeed.poll();
+
+        behind.get(5, TimeUnit.SECONDS);
+        assertFalse(upToDate.isDone());
+        InOrder inOrder = inOrder(productChangeSequencer, productChangeRepository);
+        inOrder.verify(productChangeSequencer).sequence();
+        inOrder.verify(productChangeRepository).findLastAfter(3L);
+    }
+
+    @Test
+    void testPollWithoutWaitersOnlySequences() {
+        CompletableFuture<Void> cancelled = productChangeFeed.awaitChanges(3);
+        cancelled.cancel(false);
+
+        productChangeFeed.poll();
+
+        verify(productChangeSequencer).sequence();
+        verify(productChangeRepository, never()).findLastAfter(anyLong());
+    }
+}
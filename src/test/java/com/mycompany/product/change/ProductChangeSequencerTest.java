@@ -0,0 +1,125 @@
+package com.mycompany.product.change;
+
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductChangeHead;
+import com.mycompany.product.repository.ProductChangeHeadRepository;
+import com.mycompany.product.repository.ProductChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductChangeSequencerTest {
+
+    private ProductChangeRepository productChangeRepository;
+
+    private ProductChangeHeadRepository productChangeHeadRepository;
+
+    private ProductChangeSequencer productChangeSequencer;
+
+    private ProductChangeHead head;
+
+    private long changeId;
+
+    @BeforeEach
+    void setUp() {
+        productChangeRepository = mock(ProductChangeRepository.class);
+        productChangeHeadRepository = mock(ProductChangeHeadRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        productChangeSequencer = new ProductChangeSequencer(productChangeRepository, productChangeHeadRepository,
+            transactionTemplate);
+        head = new ProductChangeHead(ProductChangeHead.ID, 41L);
+        when(productChangeHeadRepository.findAndLock()).thenReturn(Optional.of(head));
+    }
+
+    @Test
+    void testSequenceContinuesFromHead() {
+        List<ProductChange> changes = changes(2);
+        when(productChangeRepository.findUnsequenced(PageRequest.of(0, ProductChangeSequencer.BATCH_SIZE)))
+            .thenReturn(changes);
+
+        int sequenced = productChangeSequencer.sequence();
+
+        assertEquals(2, sequenced);
+        assertEquals(42L, changes.get(0).getSequence());
+        assertEquals(43L, changes.get(1).getSequence());
+        assertEquals(43L, head.getLastSequence());
+    }
+
+    @Test
+    void testSequenceRunsUntilNoBatchIsFull() {
+        when(productChangeRepository.findUnsequenced(any()))
+            .thenReturn(changes(ProductChangeSequencer.BATCH_SIZE), changes(1));
+
+        int sequenced = productChangeSequencer.sequence();
+
+        assertEquals(ProductChangeSequencer.BATCH_SIZE + 1, sequenced);
+        assertEquals(41L + ProductChangeSequencer.BATCH_SIZE + 1, head.getLastSequence());
+        verify(productChangeHeadRepository, times(2)).findAndLock();
+    }
+
+    @Test
+    void testSequenceWithoutHead() {
+        when(productChangeHeadRepository.findAndLock()).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> productChangeSequencer.sequence());
+        verifyNoInteractions(productChangeRepository);
+    }
+
+    @Test
+    void testSequenceOrdersChangesOfProductByVersion() {
+        UUID productId = UUID.randomUUID();
+        // Ids allocated by two instances, the instance with the lower block updated the product last
+        ProductChange updated = change(1L, productId, 2L);
+        ProductChange other = change(2L, UUID.randomUUID(), 0L);
+        ProductChange created = change(51L, productId, 0L);
+        ProductChange deleted = change(52L, productId, null);
+        when(productChangeRepository.findUnsequenced(any())).thenReturn(List.of(updated, other, created, deleted));
+
+        productChangeSequencer.sequence();
+
+        assertEquals(42L, created.getSequence());
+        assertEquals(43L, other.getSequence());
+        assertEquals(44L, updated.getSequence());
+        assertEquals(45L, deleted.getSequence());
+    }
+
+    @Test
+    void testFullBatchTakesEarlierChangesOfItsProducts() {
+        List<ProductChange> batch = changes(ProductChangeSequencer.BATCH_SIZE);
+        ProductChange last = batch.getLast();
+        last.setVersion(1L);
+        ProductChange earlier = change(5_000L, last.getProductId(), 0L);
+        when(productChangeRepository.findUnsequenced(any())).thenReturn(batch, List.of());
+        when(productChangeRepository.findUnsequencedOf(any())).thenReturn(List.of(earlier, last));
+
+        int sequenced = productChangeSequencer.sequence();
+
+        assertEquals(ProductChangeSequencer.BATCH_SIZE + 1, sequenced);
+        assertEquals(41L + ProductChangeSequencer.BATCH_SIZE, earlier.getSequence());
+        assertEquals(41L + ProductChangeSequencer.BATCH_SIZE + 1, last.getSequence());
+    }
+
+    private List<ProductChange> changes(int count) {
+        return Stream.generate(() -> change(++changeId, UUID.randomUUID(), null)).limit(count).toList();
+    }
+
+    private static ProductChange change(long changeId, UUID productId, Long version) {
+        ProductChange change = ProductChange.deleted(productId);
+        change.setChangeId(changeId);
+        change.setVersion(version);
+        return change;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.product.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private AdaptiveConcurrencyLimit limit;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AdaptiveConcurrencyLimit(10, 2, 100, 1.5, WINDOW_NANOS, 1);
+        now = 0;
+    }
+
+    @Test
+    void testRejectsRequestsOverTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertEquals(10, limit.getInFlight());
+    }
+
+    @Test
+    void testGrowsWhileLatencyIsSteady() {
+        for (int i = 0; i < 5; i++) {
+            runWindow(limit.getLimit(), 10, false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+        assertEquals(10, limit.snapshot().rttMillis(), 0.001);
+    }
+
+    @Test
+    void testShrinksWhenLatencyRises() {
+        for (int i = 0; i < 5; i++) {
+            runWindow(limit.getLimit(), 10, false);
+        }
+        int steadyLimit = limit.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            runWindow(limit.getLimit(), 50, false);
+        }
+
+        assertTrue(limit.getLimit() < steadyLimit, "limit " + limit.getLimit() + ", was " + steadyLimit);
+        assertTrue(limit.getLimit() < 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void testBacksOffOnFailures() {
+        runWindow(10, 10, true);
+
+        assertEquals(9, limit.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            runWindow(limit.getLimit(), 10, true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void testDoesNotGrowWhenUnderused() {
+        for (int i = 0; i < 10; i++) {
+            runWindow(2, 10, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    /**
+     * Runs the given number of concurrent requests and completes them within one window.
+     */
+    private void runWindow(int requests, long rttMillis, boolean dropped) {
+        for (int i = 0; i < requests; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < requests; i++) {
+            if (i == requests - 1) {
+                now += WINDOW_NANOS;
+            }
+            limit.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), dropped, now);
+        }
+    }
+}
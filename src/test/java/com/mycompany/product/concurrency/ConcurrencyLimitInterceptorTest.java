@@ -0,0 +1,83 @@
+package com.mycompany.product.concurrency;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConcurrencyLimitInterceptor interceptor;
+
+    private HandlerMethod getHandler;
+
+    private HandlerMethod postHandler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        ProductProperties properties = new ProductProperties();
+        properties.getConcurrencyLimit().getRead().setInitialLimit(1);
+        properties.getConcurrencyLimit().getRead().setMinLimit(1);
+        properties.getConcurrencyLimit().getWrite().setInitialLimit(2);
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ConcurrencyLimitInterceptor(properties, meterRegistry);
+        getHandler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+        postHandler = new HandlerMethod(new Object(), Object.class.getMethod("hashCode"));
+    }
+
+    @Test
+    void testRejectsRequestsOverTheLimit() throws Exception {
+        MockHttpServletRequest admitted = new MockHttpServletRequest("GET", "/v1/products");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(admitted, new MockHttpServletResponse(), getHandler));
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/products"), rejected, getHandler));
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("product.concurrency.rejected").tag("operation", "toString")
+            .functionCounter().count());
+
+        interceptor.afterCompletion(admitted, new MockHttpServletResponse(), getHandler, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/products"),
+            new MockHttpServletResponse(), getHandler));
+    }
+
+    @Test
+    void testReadsAndWritesHaveSeparateLimits() throws Exception {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/products"),
+            new MockHttpServletResponse(), getHandler));
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/products"),
+            new MockHttpServletResponse(), postHandler));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/products"),
+            new MockHttpServletResponse(), postHandler));
+
+        Map<String, ConcurrencyLimitInterceptor.OperationLimit> limits = interceptor.limits();
+        assertEquals("read", limits.get("toString").bucket());
+        assertEquals(1, limits.get("toString").limit().inFlight());
+        assertEquals("write", limits.get("hashCode").bucket());
+        assertEquals(2, limits.get("hashCode").limit().inFlight());
+    }
+
+    @Test
+    void testAsynchronousRequestsFreeTheirSlot() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products");
+        interceptor.preHandle(request, new MockHttpServletResponse(), getHandler);
+
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), getHandler);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), getHandler, null);
+
+        assertEquals(0, interceptor.limits().get("toString").limit().inFlight());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.product.concurrency;
+
+import com.mycompany.product.config.ProductProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionAdmissionFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConnectionAdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ProductProperties properties = new ProductProperties();
+        properties.getAdmission().setMaxConcurrentRequests(1);
+        properties.getAdmission().setMaxWait(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConnectionAdmissionFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void testReleasesPermitWhenRequestReturns() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/products"), new MockHttpServletResponse(),
+            (request, response) -> assertEquals(0, availablePermits()));
+
+        assertEquals(1, availablePermits());
+    }
+
+    @Test
+    void testKeepsPermitUntilAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products/export");
+        request.setAsyncSupported(true);
+        FilterChain startAsync = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync);
+
+        assertEquals(0, availablePermits());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/products"), rejected,
+            (servletRequest, servletResponse) -> fail("admitted without a permit"));
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(1, availablePermits());
+    }
+
+    @Test
+    void testReleasesPermitOfAsyncRequestOnce() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/products/changes");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+            (servletRequest, servletResponse) -> servletRequest.startAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.complete();
+        asyncContext.complete();
+
+        assertEquals(1, availablePermits());
+    }
+
+    private double availablePermits() {
+        return meterRegistry.get("product.admission.available").gauge().value();
+    }
+}
@@ -0,0 +1,158 @@
+package com.mycompany.product.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final String KEY = "popular";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight<String, List<String>> singleFlight;
+
+    private ExecutorService callers;
+
+    private CountDownLatch release;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), ArrayList::new, meterRegistry);
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentLoadsShareOneLoad() throws Exception {
+        Future<List<String>> leader = callers.submit(() -> singleFlight.load(KEY, blockingLoader(List.of("value"))));
+        awaitInFlight();
+        List<Future<List<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(callers.submit(() -> singleFlight.load(KEY, blockingLoader(List.of("other")))));
+        }
+        awaitJoined(4);
+
+        release.countDown();
+
+        List<String> leaderValue = leader.get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> follower : followers) {
+            List<String> value = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("value"), value);
+            assertNotSame(leaderValue, value);
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("executed"));
+    }
+
+    @Test
+    void testFailureIsPropagatedAndNotRemembered() throws Exception {
+        Future<List<String>> leader = callers.submit(() -> singleFlight.load(KEY, () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("Database unavailable");
+        }));
+        awaitInFlight();
+        Future<List<String>> follower = callers.submit(() -> singleFlight.load(KEY, blockingLoader(List.of())));
+        awaitJoined(1);
+
+        release.countDown();
+
+        ExecutionException leaderFailure =
+            assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        ExecutionException followerFailure =
+            assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+        assertEquals("Database unavailable", followerFailure.getCause().getMessage());
+
+        assertEquals(List.of("retried"), singleFlight.load(KEY, () -> List.of("retried")));
+    }
+
+    @Test
+    void testWaitingCallerTimesOut() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", Duration.ofMillis(50), ArrayList::new, meterRegistry);
+        Future<List<String>> leader = callers.submit(() -> singleFlight.load(KEY, blockingLoader(List.of("value"))));
+        awaitInFlight();
+
+        assertThrows(QueryTimeoutException.class, () -> singleFlight.load(KEY, () -> List.of("other")));
+        assertEquals(1, meterRegistry.get("product.singleflight.timeouts").counter().count());
+
+        release.countDown();
+        assertEquals(List.of("value"), leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSequentialLoadsAreNotShared() {
+        singleFlight.load(KEY, () -> List.of("first"));
+
+        assertEquals(List.of("second"), singleFlight.load(KEY, () -> List.of("second")));
+        assertEquals(List.of("other"), singleFlight.load("other", () -> List.of("other")));
+        assertEquals(3, count("executed"));
+        assertEquals(0, count("joined"));
+    }
+
+    private Supplier<List<String>> blockingLoader(List<String> value) {
+        return () -> {
+            loads.incrementAndGet();
+            await(release);
+            return value;
+        };
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        awaitCount("executed", 1);
+    }
+
+    private void awaitJoined(int joined) throws InterruptedException {
+        awaitCount("joined", joined);
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(outcome) < expected) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + expected + " " + outcome + " loads");
+            Thread.sleep(1);
+        }
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("product.singleflight.loads").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.product.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedJsonTest {
+
+    @Test
+    void testArrayJoinsElements() throws IOException {
+        EncodedJson body = EncodedJson.array(List.of(bytes("{\"a\":1}"), bytes("{\"b\":2}")));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+
+        assertEquals("[{\"a\":1},{\"b\":2}]", outputStream.toString(StandardCharsets.UTF_8));
+        assertEquals(outputStream.size(), body.length());
+    }
+
+    @Test
+    void testEmptyArray() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        EncodedJson.array(List.of()).writeTo(outputStream);
+
+        assertEquals("[]", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testIsPreferredFollowsContentNegotiation() {
+        assertTrue(EncodedJson.isPreferred(null));
+        assertTrue(EncodedJson.isPreferred("*/*"));
+        assertTrue(EncodedJson.isPreferred("application/json"));
+        assertTrue(EncodedJson.isPreferred("application/cbor;q=0.5, application/json"));
+        assertFalse(EncodedJson.isPreferred("application/cbor"));
+        assertFalse(EncodedJson.isPreferred("application/x-jackson-smile, */*;q=0.1"));
+        assertFalse(EncodedJson.isPreferred("text/plain"));
+        assertFalse(EncodedJson.isPreferred("not a media type"));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
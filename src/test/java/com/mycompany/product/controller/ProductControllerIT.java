@@ -1,20 +1,35 @@
 package com.mycompany.product.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.product.change.ProductChangeSequencer;
+import com.mycompany.product.invalidation.ProductInvalidationBus;
 import com.mycompany.product.openapi.model.ProductDto;
+import com.mycompany.product.openapi.model.ProductKeyDto;
+import com.mycompany.product.openapi.model.ProductPriceDto;
 import com.mycompany.product.model.Product;
+import com.mycompany.product.repository.ProductChangeRepository;
 import com.mycompany.product.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,15 +39,29 @@ class ProductControllerIT {
 
     private static final String BASE_URL = "/v1/products";
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private ProductChangeSequencer productChangeSequencer;
+
+    @Autowired
+    private ProductInvalidationBus productInvalidationBus;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private ProductDto testProductDto;
 
     @BeforeEach
@@ -76,6 +105,18 @@ class ProductControllerIT {
             .andExpect(status().isNoContent());
     }
 
+    @Test
+    void testDeleteProductWithIfMatch() throws Exception {
+        UUID productId = testProductDto.getId();
+
+        mockMvc.perform(delete(BASE_URL + "/" + productId)
+                .header("If-Match", "\"" + productId + ":3\""))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(BASE_URL + "/" + productId)
+                .header("If-Match", "\"" + productId + ":0\""))
+            .andExpect(status().isNoContent());
+    }
+
     @Test
     void testGetAllProducts() throws Exception {
 
@@ -90,6 +131,226 @@ class ProductControllerIT {
             .andExpect(jsonPath("$[0].description").value(testProductDto.getDescription()));
     }
 
+    @Test
+    void testGetAllProductsWithFields() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .param("fields", "name")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(testProductDto.getId().toString()))
+            .andExpect(jsonPath("$[0].name").value(testProductDto.getName()))
+            .andExpect(jsonPath("$[0].price").doesNotExist())
+            .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        mockMvc.perform(get(BASE_URL)
+                .param("sort", "price")
+                .param("fields", "price,description")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].price").value(testProductDto.getPrice().toString()))
+            .andExpect(jsonPath("$[0].description").value(testProductDto.getDescription()))
+            .andExpect(jsonPath("$[0].name").doesNotExist());
+    }
+
+    @Test
+    void testGetAllProductsWithFieldsAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get(BASE_URL)
+                .param("fields", "name")
+                .accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+
+        List<ProductDto> products = Jackson2ObjectMapperBuilder.cbor().build()
+            .readValue(body, new TypeReference<List<ProductDto>>() {
+            });
+        assertEquals(testProductDto.getName(), products.get(0).getName());
+        assertNull(products.get(0).getDescription());
+    }
+
+    @Test
+    void testGetAllProductsAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get(BASE_URL)
+                .accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andExpect(header().string("ETag", endsWith("-cbor\"")))
+            .andExpect(header().string("Vary", "Accept"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        List<ProductDto> products = Jackson2ObjectMapperBuilder.cbor().build()
+            .readValue(body, new TypeReference<List<ProductDto>>() {
+            });
+        assertEquals(1, products.size());
+        assertEquals(testProductDto.getId(), products.get(0).getId());
+        assertEquals(0, testProductDto.getPrice().compareTo(products.get(0).getPrice()));
+    }
+
+    @Test
+    void testGetAllProductsWithCursor() throws Exception {
+        Product cheaperProduct = new Product();
+        cheaperProduct.setName("Cheaper Product");
+        cheaperProduct.setPrice(BigDecimal.valueOf(50.0));
+        cheaperProduct.setDescription("Cheaper Description");
+        productRepository.save(cheaperProduct);
+
+        String nextCursor = mockMvc.perform(get(BASE_URL)
+                .param("sort", "price")
+                .param("maxResults", "1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].name").value(cheaperProduct.getName()))
+            .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get(BASE_URL)
+                .param("after", nextCursor)
+                .param("maxResults", "1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$[0].name").value(testProductDto.getName()));
+    }
+
+    @Test
+    void testGetAllProductsInPriceRange() throws Exception {
+        for (int price : List.of(50, 150, 250)) {
+            Product product = new Product();
+            product.setName("Product " + price);
+            product.setPrice(BigDecimal.valueOf(price));
+            product.setDescription("Description " + price);
+            productRepository.save(product);
+        }
+
+        String nextCursor = mockMvc.perform(get(BASE_URL)
+                .param("minPrice", "100")
+                .param("maxPrice", "200")
+                .param("maxResults", "1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].name").value(testProductDto.getName()))
+            .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get(BASE_URL)
+                .param("minPrice", "100")
+                .param("maxPrice", "200")
+                .param("after", nextCursor)
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].name").value("Product 150"));
+    }
+
+    @Test
+    void testGetAllProductsWithTotalCount() throws Exception {
+        long total = totalCount("exact");
+        ProductDto newProductDto = new ProductDto();
+        newProductDto.setName("Counted Product");
+        newProductDto.setPrice(BigDecimal.valueOf(75.0));
+        newProductDto.setDescription("Counted Description");
+        mockMvc.perform(post(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newProductDto)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URL)
+                .param("count", "exact")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", (total + 1) + "; accuracy=exact"));
+        // Without planner statistics, as on H2, the estimate is the exact count
+        mockMvc.perform(get(BASE_URL)
+                .param("count", "estimated")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", (total + 1) + "; accuracy=exact"));
+    }
+
+    @Test
+    void testGetAllProductsWithoutTotalCount() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"));
+        mockMvc.perform(get(BASE_URL)
+                .param("count", "approximate")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllProductsWithEmptyPriceRange() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .param("minPrice", "200")
+                .param("maxPrice", "100")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        ProductDto chairDto = new ProductDto();
+        chairDto.setName("Oak Chair");
+        chairDto.setPrice(BigDecimal.valueOf(80.0));
+        chairDto.setDescription("Matches the green table");
+        ProductDto tableDto = new ProductDto();
+        tableDto.setName("Green Table");
+        tableDto.setPrice(BigDecimal.valueOf(250.0));
+        tableDto.setDescription("Solid oak dining table");
+        for (ProductDto productDto : List.of(chairDto, tableDto)) {
+            mockMvc.perform(post(BASE_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get(BASE_URL + "/search")
+                .param("q", "green tab")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value("Green Table"))
+            .andExpect(jsonPath("$[1].name").value("Oak Chair"));
+    }
+
+    @Test
+    void testSearchProductsWithoutQuery() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/search")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportProducts() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/export")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        assertEquals(testProductDto.getId(), objectMapper.readValue(lines[0], ProductDto.class).getId());
+    }
+
+    @Test
+    void testExportProductsAfterLastProduct() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/export")
+                .param("after", testProductDto.getId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(""));
+    }
+
     @Test
     void testGetProductById() throws Exception {
         UUID productId = testProductDto.getId();
@@ -102,6 +363,141 @@ class ProductControllerIT {
             .andExpect(jsonPath("$.description").value(testProductDto.getDescription()));
     }
 
+    @Test
+    void testGetProductByIdWithFieldsCountsRows() throws Exception {
+        String url = BASE_URL + "/" + testProductDto.getId();
+        mockMvc.perform(get(url).param("fields", "name,price"))
+            .andExpect(status().isOk());
+        DistributionSummary rows = meterRegistry.get("product.db.rows").tag("operation", "getProductById").summary();
+        double rowsBefore = rows.totalAmount();
+
+        mockMvc.perform(get(url).param("fields", "name,price"))
+            .andExpect(status().isOk());
+
+        assertEquals(rowsBefore + 1, rows.totalAmount());
+    }
+
+    @Test
+    void testGetProductByIdWithFields() throws Exception {
+        UUID productId = testProductDto.getId();
+
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .param("fields", "name,price"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(jsonPath("$.id").value(productId.toString()))
+            .andExpect(jsonPath("$.name").value(testProductDto.getName()))
+            .andExpect(jsonPath("$.price").value(testProductDto.getPrice().toString()))
+            .andExpect(jsonPath("$.description").doesNotExist())
+            .andExpect(jsonPath("$.version").doesNotExist());
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .param("fields", "name,weight"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetProductByIdAsSmile() throws Exception {
+        UUID productId = testProductDto.getId();
+
+        byte[] body = mockMvc.perform(get(BASE_URL + "/" + productId)
+                .accept(SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(SMILE))
+            .andExpect(header().string("ETag", "\"" + productId + ":0-smile\""))
+            .andExpect(header().string("Vary", "Accept"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        ProductDto product = Jackson2ObjectMapperBuilder.smile().build().readValue(body, ProductDto.class);
+        assertEquals(testProductDto.getName(), product.getName());
+        assertEquals(0, testProductDto.getPrice().compareTo(product.getPrice()));
+    }
+
+    @Test
+    void testGetProductByIdNotModified() throws Exception {
+        UUID productId = testProductDto.getId();
+
+        String eTag = mockMvc.perform(get(BASE_URL + "/" + productId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"" + productId + ":0\""))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetProductByIdNotModifiedPerEncoding() throws Exception {
+        UUID productId = testProductDto.getId();
+        String jsonETag = "\"" + productId + ":0\"";
+        String cborETag = "\"" + productId + ":0-cbor\"";
+
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .header("If-None-Match", jsonETag)
+                .accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andExpect(header().string("ETag", cborETag))
+            .andExpect(header().string("Vary", "Accept"));
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .header("If-None-Match", cborETag)
+                .accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", cborETag))
+            .andExpect(header().string("Vary", "Accept"));
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .header("If-None-Match", cborETag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", jsonETag));
+    }
+
+    @Test
+    void testGetProductByIdModified() throws Exception {
+        UUID productId = testProductDto.getId();
+        testProductDto.setName("Updated Product");
+        mockMvc.perform(put(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URL + "/" + productId)
+                .header("If-None-Match", "\"" + productId + ":0\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"" + productId + ":1\""))
+            .andExpect(jsonPath("$.name").value("Updated Product"));
+    }
+
+    @Test
+    void testGetAllProductsNotModified() throws Exception {
+        String eTag = mockMvc.perform(get(BASE_URL)
+                .param("sort", "price")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(BASE_URL)
+                .param("sort", "price")
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified());
+
+        Product anotherProduct = new Product();
+        anotherProduct.setName("Another Product");
+        anotherProduct.setPrice(BigDecimal.valueOf(50.0));
+        anotherProduct.setDescription("Another Description");
+        productRepository.save(anotherProduct);
+
+        mockMvc.perform(get(BASE_URL)
+                .param("sort", "price")
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     void testUpdateProduct() throws Exception {
         UUID productId = testProductDto.getId();
@@ -121,6 +517,258 @@ class ProductControllerIT {
             .andExpect(jsonPath("$.description").value(updatedProductDto.getDescription()));
     }
 
+    @Test
+    void testUpdateProductWithIfMatch() throws Exception {
+        UUID productId = testProductDto.getId();
+        testProductDto.setName("Updated Product");
+
+        mockMvc.perform(put(BASE_URL)
+                .header("If-Match", "\"" + productId + ":0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"" + productId + ":1\""))
+            .andExpect(jsonPath("$.name").value("Updated Product"))
+            .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void testUpdateProductWithIfMatchReturnsStoredPrice() throws Exception {
+        UUID productId = testProductDto.getId();
+        testProductDto.setPrice(new BigDecimal("9.999"));
+
+        MvcResult updated = mockMvc.perform(put(BASE_URL)
+                .header("If-Match", "\"" + productId + ":0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.price").value(10.00))
+            .andReturn();
+
+        // Drops the cached product, so the GET reads the stored row
+        productInvalidationBus.onGap();
+        MvcResult read = mockMvc.perform(get(BASE_URL + "/" + productId))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        assertEquals(read.getResponse().getHeader("ETag"), updated.getResponse().getHeader("ETag"));
+        assertEquals(objectMapper.readTree(read.getResponse().getContentAsString()),
+            objectMapper.readTree(updated.getResponse().getContentAsString()));
+    }
+
+    @Test
+    void testCreateProductIgnoresClientVersion() throws Exception {
+        ProductDto newProductDto = new ProductDto();
+        newProductDto.setName("New Product");
+        newProductDto.setPrice(BigDecimal.valueOf(150.0));
+        newProductDto.setDescription("New Product Description");
+        newProductDto.setVersion(5L);
+
+        mockMvc.perform(post(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newProductDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    void testUpdateProductWithIfMatchOfCbor() throws Exception {
+        UUID productId = testProductDto.getId();
+        testProductDto.setName("Updated Product");
+
+        mockMvc.perform(put(BASE_URL)
+                .header("If-Match", "\"" + productId + ":0-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void testUpdateProductWithStaleIfMatch() throws Exception {
+        UUID productId = testProductDto.getId();
+
+        mockMvc.perform(put(BASE_URL)
+                .header("If-Match", "\"" + productId + ":7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateProductWithStaleVersion() throws Exception {
+        testProductDto.setVersion(7L);
+
+        mockMvc.perform(put(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testCreateProductsInBatch() throws Exception {
+        ProductDto firstProductDto = new ProductDto();
+        firstProductDto.setName("First Product");
+        firstProductDto.setPrice(BigDecimal.valueOf(10.0));
+        firstProductDto.setDescription("First Description");
+        ProductDto secondProductDto = new ProductDto();
+        secondProductDto.setName("Second Product");
+        secondProductDto.setPrice(BigDecimal.valueOf(20.0));
+        secondProductDto.setDescription("Second Description");
+
+        mockMvc.perform(post(BASE_URL + ":batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(firstProductDto, secondProductDto))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(2))
+            .andExpect(jsonPath("$.failed").value(0))
+            .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.results[1].product.name").value(secondProductDto.getName()));
+    }
+
+    @Test
+    void testUpdateProductsInBatchWithStaleVersion() throws Exception {
+        ProductDto staleProductDto = new ProductDto();
+        staleProductDto.setId(testProductDto.getId());
+        staleProductDto.setName("Stale Product");
+        staleProductDto.setPrice(BigDecimal.valueOf(150.0));
+        staleProductDto.setDescription("Stale Description");
+        staleProductDto.setVersion(42L);
+
+        mockMvc.perform(put(BASE_URL + ":batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(testProductDto, staleProductDto))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(1))
+            .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+            .andExpect(jsonPath("$.results[0].product.version").value(1))
+            .andExpect(jsonPath("$.results[1].status").value("CONFLICT"));
+    }
+
+    @Test
+    void testDeleteProductsInBatch() throws Exception {
+        ProductKeyDto existingKey = new ProductKeyDto();
+        existingKey.setId(testProductDto.getId());
+        ProductKeyDto missingKey = new ProductKeyDto();
+        missingKey.setId(UUID.randomUUID());
+
+        mockMvc.perform(delete(BASE_URL + ":batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(existingKey, missingKey))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(1))
+            .andExpect(jsonPath("$.results[0].status").value("DELETED"))
+            .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void testLookupProducts() throws Exception {
+        UUID missingId = UUID.randomUUID();
+
+        mockMvc.perform(post(BASE_URL + ":lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(missingId, testProductDto.getId()))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.products.length()").value(1))
+            .andExpect(jsonPath("$.products[0].name").value(testProductDto.getName()))
+            .andExpect(jsonPath("$.missing[0]").value(missingId.toString()));
+    }
+
+    @Test
+    void testLookupProductsWithNullId() throws Exception {
+        mockMvc.perform(post(BASE_URL + ":lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"" + testProductDto.getId() + "\", null]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUpdateProductPrices() throws Exception {
+        ProductPriceDto productPriceDto = new ProductPriceDto();
+        productPriceDto.setId(testProductDto.getId());
+        productPriceDto.setPrice(BigDecimal.valueOf(80.0));
+
+        mockMvc.perform(put(BASE_URL + ":prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productPriceDto))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(1))
+            .andExpect(jsonPath("$.results[0].product.price").value(80.0))
+            .andExpect(jsonPath("$.results[0].product.version").value(1));
+    }
+
+    @Test
+    void testUpdateProductPricesWithoutId() throws Exception {
+        ProductPriceDto productPriceDto = new ProductPriceDto();
+        productPriceDto.setPrice(BigDecimal.valueOf(80.0));
+
+        mockMvc.perform(put(BASE_URL + ":prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productPriceDto))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetProductChanges() throws Exception {
+        productChangeSequencer.sequence();
+        long since = productChangeRepository.findLastSequence().orElse(0L);
+        mockMvc.perform(delete(BASE_URL + "/" + testProductDto.getId()))
+            .andExpect(status().isNoContent());
+        productChangeSequencer.sequence();
+
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/changes").param("since", String.valueOf(since)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Next-Since", String.valueOf(since + 1)))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(testProductDto.getId().toString()))
+            .andExpect(jsonPath("$[0].operation").value("DELETED"));
+    }
+
+    @Test
+    void testGetPurgedProductChanges() throws Exception {
+        mockMvc.perform(delete(BASE_URL + "/" + testProductDto.getId()))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(post(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductDto)))
+            .andExpect(status().isOk());
+        productChangeSequencer.sequence();
+        long last = productChangeRepository.findLastSequence().orElseThrow();
+        productChangeRepository.deleteRecordedBefore(Instant.now().plusSeconds(60));
+
+        mockMvc.perform(get(BASE_URL + "/changes").param("since", "0"))
+            .andExpect(status().isGone())
+            .andExpect(header().string("X-Next-Since", String.valueOf(last)));
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/changes").param("since", String.valueOf(last - 1)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].operation").value("CREATED"));
+    }
+
+    @Test
+    void testGetProductChangesWaitsForChange() throws Exception {
+        productChangeSequencer.sequence();
+        long since = productChangeRepository.findLastSequence().orElse(0L);
+
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/changes")
+                .param("since", String.valueOf(since))
+                .param("waitSeconds", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(delete(BASE_URL + "/" + testProductDto.getId()))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].operation").value("DELETED"));
+    }
+
     // Negative test cases...
 
     @Test
@@ -155,6 +803,14 @@ class ProductControllerIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetAllProductsWithInvalidCursor() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .param("after", "not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testDeleteProductByInvalidId() throws Exception {
         UUID invalidProductId = UUID.randomUUID();
@@ -192,4 +848,13 @@ class ProductControllerIT {
                 .content(objectMapper.writeValueAsString(updatedProductDto)))
             .andExpect(status().isBadRequest());
     }
+
+    private long totalCount(String count) throws Exception {
+        String header = mockMvc.perform(get(BASE_URL)
+                .param("count", count)
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("X-Total-Count");
+        return Long.parseLong(header.substring(0, header.indexOf(';')));
+    }
 }
@@ -0,0 +1,46 @@
+package com.mycompany.product.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductETagTest {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void testGzipETagDiffersFromIdentity() {
+        String eTag = ProductETag.of(id, 3, ProductEncoding.JSON);
+
+        String gzipETag = ProductETag.gzip(eTag);
+
+        assertEquals("\"" + id + ":3-gzip\"", gzipETag);
+        assertTrue(ProductETag.isGzip(gzipETag));
+        assertFalse(ProductETag.isGzip(eTag));
+    }
+
+    @Test
+    void testMatchAcceptsIdentityAndGzipForms() {
+        String eTag = ProductETag.of(id, 3, ProductEncoding.JSON);
+        String gzipETag = ProductETag.gzip(eTag);
+
+        assertEquals(eTag, ProductETag.match(eTag, eTag));
+        assertEquals(gzipETag, ProductETag.match("W/" + gzipETag, eTag));
+        assertEquals(eTag, ProductETag.match("*", eTag));
+        assertNull(ProductETag.match(ProductETag.gzip(ProductETag.of(id, 2, ProductEncoding.JSON)), eTag));
+        assertFalse(ProductETag.matches(ProductETag.of(id, 3, ProductEncoding.CBOR), eTag));
+    }
+
+    @Test
+    void testExpectedVersionOfEveryForm() {
+        String eTag = ProductETag.of(id, 3, ProductEncoding.SMILE);
+        String gzipETag = ProductETag.gzip(ProductETag.of(id, 3, ProductEncoding.JSON));
+
+        assertEquals(3L, ProductETag.expectedVersion(eTag, id));
+        assertEquals(3L, ProductETag.expectedVersion(gzipETag, id));
+        assertNull(ProductETag.expectedVersion("*", id));
+        assertThrows(IllegalArgumentException.class, () -> ProductETag.expectedVersion("W/" + eTag, id));
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.product.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two embedded H2 databases that each know their own name.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToReplica() {
+        ReadReplicaRoutingDataSource routing = routing(replica);
+
+        assertEquals("replica", nodeName(routing, true));
+        assertEquals(1, connections("replica"));
+    }
+
+    @Test
+    void testReadWriteTransactionGoesToPrimary() {
+        ReadReplicaRoutingDataSource routing = routing(replica);
+
+        assertEquals("primary", nodeName(routing, false));
+    }
+
+    @Test
+    void testPinnedReadGoesToPrimary() {
+        ReadReplicaRoutingDataSource routing = routing(replica);
+
+        ReadYourWrites.pin();
+        try {
+            assertEquals("primary", nodeName(routing, true));
+        } finally {
+            ReadYourWrites.unpin();
+        }
+    }
+
+    @Test
+    void testReadFailsOverToPrimaryWhenReplicaIsDown() {
+        ReadReplicaRoutingDataSource routing = routing(
+            new DriverManagerDataSource("jdbc:h2:mem:missing-replica;IFEXISTS=TRUE", "sa", ""));
+
+        assertEquals("primary", nodeName(routing, true));
+        assertEquals("primary", nodeName(routing, true));
+        assertEquals(2, connections("fallback"));
+        assertEquals(0, meterRegistry.get("product.datasource.replicas.healthy").gauge().value());
+    }
+
+    @Test
+    void testHealthCheckBringsReplicaBack() {
+        ReadReplicaRoutingDataSource routing = routing(
+            new DriverManagerDataSource("jdbc:h2:mem:late-replica;IFEXISTS=TRUE", "sa", ""));
+        assertEquals("primary", nodeName(routing, true));
+
+        database("late-replica");
+        routing.checkReplicas();
+
+        assertEquals(1, meterRegistry.get("product.datasource.replicas.healthy").gauge().value());
+        assertEquals("late-replica", nodeName(routing, true));
+    }
+
+    private ReadReplicaRoutingDataSource routing(DataSource replicaDataSource) {
+        return new ReadReplicaRoutingDataSource(primary, List.of(replicaDataSource), Duration.ofHours(1),
+            Duration.ofSeconds(1), meterRegistry);
+    }
+
+    private double connections(String target) {
+        return meterRegistry.get("product.datasource.connections").tag("target", target).counter().count();
+    }
+
+    private static String nodeName(ReadReplicaRoutingDataSource routing, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+            new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(16))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mycompany.product.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresInvalidationTransportTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        List<ProductInvalidation> invalidations = List.of(
+            new ProductInvalidation(UUID.randomUUID(), 3),
+            ProductInvalidation.deleted(UUID.randomUUID()));
+
+        String payload = PostgresInvalidationTransport.encode("1f2e3d", 42, 1_718_000_000_000L, invalidations);
+        PostgresInvalidationTransport.Batch batch = PostgresInvalidationTransport.decode(payload);
+
+        assertEquals("1f2e3d", batch.sender());
+        assertEquals(42, batch.sequence());
+        assertEquals(1_718_000_000_000L, batch.sentAtMillis());
+        assertEquals(invalidations, batch.invalidations());
+        assertTrue(batch.invalidations().get(1).isDeleted());
+    }
+
+    @Test
+    void testEncodeDecodeEmptyNotification() {
+        String payload = PostgresInvalidationTransport.encode("1f2e3d", 7, 1_718_000_000_000L, List.of());
+        PostgresInvalidationTransport.Batch batch = PostgresInvalidationTransport.decode(payload);
+
+        assertEquals(7, batch.sequence());
+        assertTrue(batch.invalidations().isEmpty());
+    }
+
+    @Test
+    void testFullBatchFitsIntoNotification() {
+        List<ProductInvalidation> invalidations = Collections.nCopies(
+            PostgresInvalidationTransport.MAX_BATCH, ProductInvalidation.deleted(UUID.randomUUID()));
+
+        String payload = PostgresInvalidationTransport.encode(Long.toHexString(Long.MIN_VALUE), Long.MAX_VALUE,
+            Long.MAX_VALUE, invalidations);
+
+        assertTrue(payload.length() < 8000);
+    }
+
+    @Test
+    void testDecodeMalformedPayload() {
+        assertThrows(IllegalArgumentException.class, () -> PostgresInvalidationTransport.decode("no send time"));
+        assertThrows(IllegalArgumentException.class, () -> PostgresInvalidationTransport.decode("a;1;1"));
+        assertThrows(IllegalArgumentException.class, () -> PostgresInvalidationTransport.decode("a;x;1;"));
+        assertThrows(IllegalArgumentException.class,
+            () -> PostgresInvalidationTransport.decode("a;1;1;" + UUID.randomUUID()));
+        assertThrows(IllegalArgumentException.class,
+            () -> PostgresInvalidationTransport.decode("a;1;1;not-a-uuid:2"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.product.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceStatsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PersistenceStatsInterceptor interceptor;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new PersistenceStatsInterceptor(meterRegistry);
+        request = new MockHttpServletRequest("GET", "/v1/products");
+        response = new MockHttpServletResponse();
+        handler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+    }
+
+    @Test
+    void testRecordsStatementsAndRowsPerOperation() {
+        interceptor.preHandle(request, response, handler);
+        PersistenceStats.statementPrepared();
+        PersistenceStats.statementPrepared();
+        PersistenceStats.rowLoaded();
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary statements = meterRegistry.get(PersistenceStatsInterceptor.STATEMENTS_METRIC)
+            .tag(OperationObservationConvention.OPERATION_TAG, "toString").summary();
+        DistributionSummary rows = meterRegistry.get(PersistenceStatsInterceptor.ROWS_METRIC)
+            .tag(OperationObservationConvention.OPERATION_TAG, "toString").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+        assertEquals(1, rows.totalAmount());
+    }
+
+    @Test
+    void testIgnoresWorkOutsideOfRequests() {
+        PersistenceStats.statementPrepared();
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertNull(meterRegistry.find(PersistenceStatsInterceptor.STATEMENTS_METRIC).summary());
+    }
+}
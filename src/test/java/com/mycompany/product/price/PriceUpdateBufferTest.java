@@ -0,0 +1,127 @@
+package com.mycompany.product.price;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PriceUpdateBufferTest {
+
+    private ProductService productService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PriceUpdateBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        ProductProperties properties = new ProductProperties();
+        // Only the explicit flushes of the tests write prices
+        properties.getPriceUpdates().setFlushInterval(Duration.ofHours(1));
+        properties.getPriceUpdates().setCapacity(3);
+        productService = mock(ProductService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new PriceUpdateBuffer(properties, productService, meterRegistry);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWritesLastPricePerProduct() {
+        UUID productId = UUID.randomUUID();
+        UUID anotherProductId = UUID.randomUUID();
+        buffer.offer(List.of(price(productId, 10), price(anotherProductId, 20)));
+        buffer.offer(List.of(price(productId, 11)));
+        buffer.offer(List.of(price(productId, 12)));
+
+        buffer.flush();
+
+        ArgumentCaptor<List<ProductPrice>> prices = ArgumentCaptor.forClass(List.class);
+        verify(productService).updatePrices(prices.capture());
+        assertEquals(Set.of(price(productId, 12), price(anotherProductId, 20)), new HashSet<>(prices.getValue()));
+        assertEquals(2.0, meterRegistry.get("product.prices.coalescing").summary().mean());
+
+        buffer.flush();
+        verifyNoMoreInteractions(productService);
+    }
+
+    @Test
+    void testOfferRejectsWhenFull() {
+        assertTrue(buffer.offer(List.of(price(UUID.randomUUID(), 1), price(UUID.randomUUID(), 2))));
+
+        assertFalse(buffer.offer(List.of(price(UUID.randomUUID(), 3), price(UUID.randomUUID(), 4))));
+
+        assertEquals(2, meterRegistry.get("product.prices.rejected").counter().count());
+        assertEquals(2, meterRegistry.get("product.prices.pending").gauge().value());
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        UUID productId = UUID.randomUUID();
+        when(productService.updatePrices(any()))
+            .thenThrow(new QueryTimeoutException("Timed out"))
+            .thenReturn(List.of());
+        buffer.offer(List.of(price(productId, 10)));
+
+        buffer.flush();
+        buffer.flush();
+
+        verify(productService, times(2)).updatePrices(List.of(price(productId, 10)));
+        assertEquals(0, meterRegistry.get("product.prices.pending").gauge().value());
+    }
+
+    @Test
+    void testThresholdFlushRunsOnVirtualThread() throws Exception {
+        ProductProperties properties = new ProductProperties();
+        properties.getPriceUpdates().setFlushInterval(Duration.ofHours(1));
+        properties.getPriceUpdates().setFlushThreshold(2);
+        CompletableFuture<Thread> flushThread = new CompletableFuture<>();
+        when(productService.updatePrices(any())).thenAnswer(invocation -> {
+            flushThread.complete(Thread.currentThread());
+            return List.of();
+        });
+        PriceUpdateBuffer thresholdBuffer = new PriceUpdateBuffer(properties, productService, meterRegistry);
+        thresholdBuffer.start();
+        try {
+            thresholdBuffer.offer(List.of(price(UUID.randomUUID(), 1), price(UUID.randomUUID(), 2)));
+
+            assertTrue(flushThread.get(5, TimeUnit.SECONDS).isVirtual());
+        } finally {
+            thresholdBuffer.stop();
+        }
+    }
+
+    @Test
+    void testOfferRejectsWhenStopped() {
+        buffer.stop();
+
+        assertFalse(buffer.offer(List.of(price(UUID.randomUUID(), 10))));
+    }
+
+    private static ProductPrice price(UUID id, long price) {
+        return new ProductPrice(id, BigDecimal.valueOf(price));
+    }
+}
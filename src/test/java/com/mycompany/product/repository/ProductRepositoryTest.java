@@ -1,14 +1,24 @@
 package com.mycompany.product.repository;
 
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductCursor;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.model.ProductVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -78,4 +88,140 @@ class ProductRepositoryTest {
         assertTrue(products.iterator().hasNext());
     }
 
+    @Test
+    void testUpdateIfVersion() {
+        UUID productId = testProduct.getId();
+        long version = testProduct.getVersion();
+
+        int staleUpdates = productRepository.updateIfVersion(productId, "Stale Product", "Stale Description",
+            BigDecimal.valueOf(1.0), version + 1);
+        int updates = productRepository.updateIfVersion(productId, "Updated Product", "Updated Description",
+            BigDecimal.valueOf(150.0), version);
+
+        assertEquals(0, staleUpdates);
+        assertEquals(1, updates);
+    }
+
+    @Test
+    void testDeleteIfVersion() {
+        UUID productId = testProduct.getId();
+
+        assertEquals(0, productRepository.deleteIfVersion(productId, testProduct.getVersion() + 1));
+        assertEquals(1, productRepository.deleteIfVersion(productId, testProduct.getVersion()));
+        assertEquals(0, productRepository.deleteIfExists(productId));
+    }
+
+    @Test
+    void testFindSliceByPrice() {
+        for (int i = 1; i <= 4; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(i * 10L));
+            product.setDescription("Description " + i);
+            productRepository.save(product);
+        }
+
+        Slice<Product> firstPage = productRepository.findSlice(ProductQuery.of(ProductSort.PRICE, null, 3));
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of("Product 1", "Product 2", "Product 3"),
+            firstPage.getContent().stream().map(Product::getName).toList());
+
+        ProductCursor cursor = ProductCursor.after(ProductSort.PRICE, firstPage.getContent().getLast());
+        Slice<Product> secondPage = productRepository.findSlice(ProductQuery.of(ProductSort.PRICE, cursor, 3));
+
+        assertFalse(secondPage.hasNext());
+        assertEquals(List.of("Product 4", "Test Product"),
+            secondPage.getContent().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void testFindSliceInPriceRange() {
+        for (int i = 1; i <= 6; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(i * 10L));
+            product.setDescription("Description " + i);
+            productRepository.save(product);
+        }
+        BigDecimal minPrice = BigDecimal.valueOf(20);
+        BigDecimal maxPrice = BigDecimal.valueOf(50);
+
+        Slice<Product> firstPage = productRepository.findSlice(
+            new ProductQuery(ProductSort.PRICE, minPrice, maxPrice, null, 2));
+        ProductCursor cursor = ProductCursor.after(ProductSort.PRICE, firstPage.getContent().getLast());
+        Slice<Product> secondPage = productRepository.findSlice(
+            new ProductQuery(ProductSort.PRICE, minPrice, maxPrice, cursor, 2));
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of("Product 2", "Product 3"),
+            firstPage.getContent().stream().map(Product::getName).toList());
+        assertFalse(secondPage.hasNext());
+        assertEquals(List.of("Product 4", "Product 5"),
+            secondPage.getContent().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void testFindSliceById() {
+        Product anotherProduct = new Product();
+        anotherProduct.setName("Another Product");
+        anotherProduct.setPrice(BigDecimal.valueOf(200.0));
+        anotherProduct.setDescription("Another Description");
+        productRepository.save(anotherProduct);
+
+        Slice<Product> firstPage = productRepository.findSlice(ProductQuery.of(ProductSort.ID, null, 1));
+        ProductCursor cursor = ProductCursor.after(ProductSort.ID, firstPage.getContent().getFirst());
+        Slice<Product> secondPage = productRepository.findSlice(ProductQuery.of(ProductSort.ID, cursor, 1));
+
+        assertTrue(firstPage.hasNext());
+        assertFalse(secondPage.hasNext());
+        assertEquals(1, secondPage.getNumberOfElements());
+        assertNotEquals(firstPage.getContent().getFirst().getId(), secondPage.getContent().getFirst().getId());
+    }
+
+    @Test
+    void testFindProjected() {
+        Set<ProductField> fields = ProductField.fromParameter("name");
+
+        Slice<Product> page = productRepository.findProjected(PageRequest.of(0, 10, Sort.by("id")), fields);
+        Slice<Product> slice = productRepository.findProjectedSlice(ProductQuery.of(ProductSort.PRICE, null, 10),
+            fields);
+        Optional<Product> product = productRepository.findProjectedById(testProduct.getId(), fields);
+
+        assertFalse(page.hasNext());
+        for (Product partialProduct : List.of(page.getContent().getFirst(), slice.getContent().getFirst(),
+            product.orElseThrow())) {
+            assertEquals(testProduct.getId(), partialProduct.getId());
+            assertEquals(testProduct.getName(), partialProduct.getName());
+            assertEquals(0, testProduct.getPrice().compareTo(partialProduct.getPrice()));
+            assertEquals(testProduct.getVersion(), partialProduct.getVersion());
+            assertNull(partialProduct.getDescription());
+        }
+        assertFalse(productRepository.findProjectedById(UUID.randomUUID(), fields).isPresent());
+    }
+
+    @Test
+    void testFindVersionById() {
+        assertEquals(Optional.of(testProduct.getVersion()), productRepository.findVersionById(testProduct.getId()));
+        assertFalse(productRepository.findVersionById(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    void testFindVersionsMatchesProducts() {
+        Product anotherProduct = new Product();
+        anotherProduct.setName("Another Product");
+        anotherProduct.setPrice(BigDecimal.valueOf(50.0));
+        anotherProduct.setDescription("Another Description");
+        productRepository.save(anotherProduct);
+
+        Slice<ProductVersion> versions = productRepository.findVersions(PageRequest.of(0, 1, Sort.by("id")));
+        Slice<ProductVersion> priceVersions = productRepository.findVersionSlice(
+            ProductQuery.of(ProductSort.PRICE, null, 1));
+        Slice<Product> pricePage = productRepository.findSlice(ProductQuery.of(ProductSort.PRICE, null, 1));
+
+        assertTrue(versions.hasNext());
+        assertEquals(1, versions.getNumberOfElements());
+        assertEquals(pricePage.hasNext(), priceVersions.hasNext());
+        assertEquals(pricePage.getContent().stream().map(ProductVersion::of).toList(), priceVersions.getContent());
+    }
 }
@@ -0,0 +1,101 @@
+package com.mycompany.product.search;
+
+import com.mycompany.product.config.ProductProperties;
+import com.mycompany.product.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductSearchIndexTest {
+
+    private InMemoryProductSearchIndex productSearchIndex;
+
+    private Product table;
+
+    private Product chair;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new InMemoryProductSearchIndex(new ProductProperties());
+        table = product("Green Table", "Solid oak dining table");
+        chair = product("Oak Chair", "Matches the green table");
+        productSearchIndex.index(table);
+        productSearchIndex.index(chair);
+    }
+
+    @Test
+    void testSearchRanksNameMatchesFirst() {
+        Slice<UUID> result = productSearchIndex.search("table", PageRequest.of(0, 10));
+
+        assertEquals(List.of(table.getId(), chair.getId()), result.getContent());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void testSearchMatchesPrefixesOfAllTokens() {
+        assertEquals(List.of(chair.getId(), table.getId()),
+            productSearchIndex.search("OAK gre", PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(table.getId()),
+            productSearchIndex.search("din tab", PageRequest.of(0, 10)).getContent());
+        assertTrue(productSearchIndex.search("oak sofa", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testSearchMatchesShortTokensAsWholeWords() {
+        assertTrue(productSearchIndex.search("g", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testSearchPaginates() {
+        Slice<UUID> firstPage = productSearchIndex.search("green", PageRequest.of(0, 1));
+        Slice<UUID> secondPage = productSearchIndex.search("green", PageRequest.of(1, 1));
+
+        assertEquals(List.of(table.getId()), firstPage.getContent());
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(chair.getId()), secondPage.getContent());
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    void testIndexReplacesOlderVersion() {
+        Product renamedTable = table.toBuilder().name("Blue Desk").version(1).build();
+        productSearchIndex.index(renamedTable);
+        productSearchIndex.index(table);
+
+        assertEquals(List.of(table.getId()), productSearchIndex.search("desk", PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(chair.getId()), productSearchIndex.search("green", PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void testRemove() {
+        productSearchIndex.remove(table.getId());
+
+        assertEquals(List.of(chair.getId()), productSearchIndex.search("table", PageRequest.of(0, 10)).getContent());
+        assertEquals(1, productSearchIndex.size());
+    }
+
+    @Test
+    void testIndexIgnoresRemovedProduct() {
+        productSearchIndex.remove(table.getId());
+        productSearchIndex.index(table.toBuilder().version(1).build());
+
+        assertEquals(List.of(chair.getId()), productSearchIndex.search("table", PageRequest.of(0, 10)).getContent());
+        assertEquals(1, productSearchIndex.size());
+    }
+
+    private static Product product(String name, String description) {
+        return Product.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .description(description)
+            .price(BigDecimal.TEN)
+            .build();
+    }
+}
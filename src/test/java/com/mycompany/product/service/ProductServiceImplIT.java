@@ -1,6 +1,7 @@
 package com.mycompany.product.service;
 
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductCount;
 import com.mycompany.product.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,9 @@ class ProductServiceImplIT {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCounter productCounter;
+
     private Product testProduct;
 
     @BeforeEach
@@ -72,7 +76,7 @@ class ProductServiceImplIT {
     @Test
     void testUpdateProduct() {
         testProduct.setName("Updated Product");
-        testProduct.setPrice(BigDecimal.valueOf(200.0));
+        testProduct.setPrice(new BigDecimal("200.00"));
         testProduct.setDescription("Updated Description");
 
         Optional<Product> updatedProduct = productService.updateProduct(testProduct);
@@ -120,4 +124,18 @@ class ProductServiceImplIT {
         // Assert
         assertFalse(result, "Attempting to delete a non-existent product should return false");
     }
+
+    @Test
+    void testReconcileCorrectsUncountedWrites() {
+        productCounter.reconcile();
+        Product uncountedProduct = new Product();
+        uncountedProduct.setName("Uncounted Product");
+        uncountedProduct.setPrice(BigDecimal.valueOf(50.0));
+        uncountedProduct.setDescription("Saved without the product counter");
+        productRepository.save(uncountedProduct);
+
+        assertEquals(1, productCounter.reconcile());
+        assertEquals(new ProductCount(2, true), productService.countProducts(false));
+        assertEquals(0, productCounter.reconcile());
+    }
 }
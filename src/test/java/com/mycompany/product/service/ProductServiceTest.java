@@ -1,25 +1,49 @@
 package com.mycompany.product.service;
 
+import com.mycompany.product.cache.ProductCache;
+import com.mycompany.product.config.ProductProperties;
 import com.mycompany.product.model.Product;
+import com.mycompany.product.model.ProductChange;
+import com.mycompany.product.model.ProductCount;
+import com.mycompany.product.model.ProductCursor;
+import com.mycompany.product.model.ProductField;
+import com.mycompany.product.model.ProductKey;
+import com.mycompany.product.model.ProductPrice;
+import com.mycompany.product.model.ProductQuery;
+import com.mycompany.product.model.ProductSort;
+import com.mycompany.product.model.ProductUpdate;
+import com.mycompany.product.repository.ProductChangeRepository;
 import com.mycompany.product.repository.ProductRepository;
+import com.mycompany.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +52,28 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProductCounter productCounter;
+
+    @Spy
+    private ProductProperties productProperties = new ProductProperties();
+
+    @Spy
+    private ProductReadCoalescer productReadCoalescer =
+        new ProductReadCoalescer(new ProductProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -38,23 +84,81 @@ class ProductServiceTest {
         testProduct = new Product();
         testProduct.setId(UUID.randomUUID());
         testProduct.setName("Test Product");
-        testProduct.setPrice(BigDecimal.valueOf(100.0));
+        testProduct.setPrice(new BigDecimal("100.00"));
         testProduct.setDescription("Test Description");
     }
 
     @Test
     void testGetAllProducts() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
+        Slice<Product> productSlice = new SliceImpl<>(List.of(testProduct), pageable, false);
 
-        when(productRepository.findAll(any(Pageable.class))).thenReturn(productPage);
+        when(productRepository.findAllBy(pageable)).thenReturn(productSlice);
 
-        Page<Product> result = productService.getAllProducts(pageable);
+        Slice<Product> result = productService.getAllProducts(pageable);
 
         assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertFalse(result.hasNext());
+        assertEquals(testProduct.getName(), result.getContent().getFirst().getName());
+        verify(productRepository, times(1)).findAllBy(pageable);
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void testCountProducts() {
+        when(productCounter.count(true)).thenReturn(new ProductCount(1_000, false));
+
+        ProductCount result = productService.countProducts(true);
+
+        assertEquals(1_000, result.total());
+        assertFalse(result.exact());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProducts() {
+        ProductCursor cursor = new ProductCursor(ProductSort.ID, UUID.randomUUID(), null);
+        ProductQuery query = new ProductQuery(ProductSort.ID, BigDecimal.ONE, null, cursor, 10);
+        Slice<Product> productSlice = new SliceImpl<>(List.of(testProduct), PageRequest.of(0, 10), true);
+
+        when(productRepository.findSlice(query)).thenReturn(productSlice);
+
+        Slice<Product> result = productService.getProducts(query);
+
+        assertTrue(result.hasNext());
         assertEquals(testProduct.getName(), result.getContent().getFirst().getName());
-        verify(productRepository, times(1)).findAll(pageable);
+        verify(productRepository, never()).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void testSearchProducts() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Product anotherProduct = testProduct.toBuilder().id(UUID.randomUUID()).build();
+        UUID deletedId = UUID.randomUUID();
+
+        List<UUID> rankedIds = List.of(anotherProduct.getId(), deletedId, testProduct.getId());
+
+        when(productSearchIndex.search("test", pageable)).thenReturn(new SliceImpl<>(rankedIds, pageable, true));
+        when(productRepository.findAllById(any())).thenReturn(List.of(testProduct, anotherProduct));
+
+        Slice<Product> result = productService.searchProducts("test", pageable);
+
+        assertEquals(List.of(anotherProduct, testProduct), result.getContent());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void testExportProducts() {
+        UUID after = UUID.randomUUID();
+        Product anotherProduct = testProduct.toBuilder().id(UUID.randomUUID()).build();
+        List<Product> exported = new ArrayList<>();
+
+        when(productRepository.streamAfter(after, 500)).thenReturn(Stream.of(testProduct, anotherProduct));
+
+        long count = productService.exportProducts(after, exported::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(testProduct, anotherProduct), exported);
     }
 
     @Test
@@ -67,6 +171,45 @@ class ProductServiceTest {
         assertTrue(result.isPresent());
         assertEquals(testProduct.getName(), result.get().getName());
         verify(productRepository, times(1)).findById(productId);
+        verify(productCache).put(testProduct);
+    }
+
+    @Test
+    void testGetProductByIdFromCache() {
+        UUID productId = testProduct.getId();
+        when(productCache.get(productId)).thenReturn(Optional.of(testProduct));
+
+        Optional<Product> result = productService.getProductById(productId);
+
+        assertTrue(result.isPresent());
+        assertEquals(testProduct.getName(), result.get().getName());
+        verify(productRepository, never()).findById(productId);
+    }
+
+    @Test
+    void testGetProductByIdWithFields() {
+        UUID productId = testProduct.getId();
+        Set<ProductField> fields = ProductField.fromParameter("name,price");
+        Product partialProduct = testProduct.toBuilder().description(null).build();
+        when(productRepository.findProjectedById(productId, fields)).thenReturn(Optional.of(partialProduct));
+
+        Optional<Product> result = productService.getProductById(productId, fields);
+
+        assertTrue(result.isPresent());
+        assertNull(result.get().getDescription());
+        verify(productRepository, never()).findById(productId);
+        verify(productCache, never()).put(any(Product.class));
+    }
+
+    @Test
+    void testGetProductByIdWithFieldsFromCache() {
+        UUID productId = testProduct.getId();
+        when(productCache.get(productId)).thenReturn(Optional.of(testProduct));
+
+        Optional<Product> result = productService.getProductById(productId, ProductField.fromParameter("name"));
+
+        assertEquals(Optional.of(testProduct), result);
+        verify(productRepository, never()).findProjectedById(any(), any());
     }
 
     @Test
@@ -80,15 +223,128 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(productId);
     }
 
+    @Test
+    void testLookupProducts() {
+        Product cachedProduct = testProduct.toBuilder().id(UUID.randomUUID()).name("Cached Product").build();
+        UUID missingId = UUID.randomUUID();
+        when(productCache.get(cachedProduct.getId())).thenReturn(Optional.of(cachedProduct));
+        when(productCache.get(missingId)).thenReturn(Optional.empty());
+        when(productCache.get(testProduct.getId())).thenReturn(Optional.empty());
+        when(productRepository.findAllById(List.of(missingId, testProduct.getId()))).thenReturn(List.of(testProduct));
+
+        ProductLookupResult result = productService.lookupProducts(
+            List.of(missingId, testProduct.getId(), cachedProduct.getId(), testProduct.getId()));
+
+        assertEquals(List.of(testProduct, cachedProduct), result.products());
+        assertEquals(List.of(missingId), result.missing());
+        verify(productCache).put(testProduct);
+        verify(productCache, never()).put(cachedProduct);
+    }
+
+    @Test
+    void testLookupProductsInChunks() {
+        productProperties.getLookup().setChunkSize(2);
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(5).toList();
+
+        ProductLookupResult result = productService.lookupProducts(ids);
+
+        assertEquals(ids, result.missing());
+        verify(productRepository).findAllById(ids.subList(0, 2));
+        verify(productRepository).findAllById(ids.subList(2, 4));
+        verify(productRepository).findAllById(ids.subList(4, 5));
+    }
+
+    @Test
+    void testLookupTooManyProducts() {
+        productProperties.getLookup().setMaxIds(1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.lookupProducts(List.of(UUID.randomUUID(), UUID.randomUUID())));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProductVersionFromCache() {
+        UUID productId = testProduct.getId();
+        when(productCache.getVersion(productId)).thenReturn(Optional.of(3L));
+
+        Optional<Long> result = productService.getProductVersion(productId);
+
+        assertEquals(Optional.of(3L), result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetProductVersion() {
+        UUID productId = testProduct.getId();
+        when(productCache.getVersion(productId)).thenReturn(Optional.empty());
+        when(productRepository.findVersionById(productId)).thenReturn(Optional.of(2L));
+
+        Optional<Long> result = productService.getProductVersion(productId);
+
+        assertEquals(Optional.of(2L), result);
+        verify(productRepository, never()).findById(productId);
+    }
+
+    @Test
+    void testGetProductChanges() {
+        Slice<ProductChange> changes = new SliceImpl<>(List.of(ProductChange.created(testProduct)));
+        when(productChangeRepository.findAfter(5L, PageRequest.of(0, 10))).thenReturn(changes);
+
+        Slice<ProductChange> result = productService.getProductChanges(5L, 10);
+
+        assertSame(changes, result);
+    }
+
+    @Test
+    void testGetPurgedProductChanges() {
+        when(productChangeRepository.findAfter(5L, PageRequest.of(0, 10)))
+            .thenReturn(new SliceImpl<>(List.of(ProductChange.created(testProduct))));
+        when(productChangeRepository.findFirstSequence()).thenReturn(Optional.of(7L));
+        when(productChangeRepository.findLastSequence()).thenReturn(Optional.of(9L));
+
+        ProductChangesPurgedException e = assertThrows(ProductChangesPurgedException.class,
+            () -> productService.getProductChanges(5L, 10));
+
+        assertEquals(9L, e.getLastSequence());
+    }
+
+    @Test
+    void testGetProductChangesFromOldestKept() {
+        when(productChangeRepository.findAfter(6L, PageRequest.of(0, 10))).thenReturn(new SliceImpl<>(List.of()));
+        when(productChangeRepository.findFirstSequence()).thenReturn(Optional.of(7L));
+
+        assertFalse(productService.getProductChanges(6L, 10).hasContent());
+    }
+
+    @Test
+    void testGetTooManyProductChanges() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductChanges(0, 1_001));
+        verifyNoInteractions(productChangeRepository);
+    }
+
     @Test
     void testCreateProduct() {
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        UUID productId = UUID.randomUUID();
+        testProduct.setVersion(5);
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            assertNull(product.getId());
+            product.setId(productId);
+            return product;
+        });
 
         Product result = productService.createProduct(testProduct);
 
         assertNotNull(result);
         assertEquals(testProduct.getName(), result.getName());
+        assertEquals(0L, result.getVersion());
         verify(productRepository, times(1)).save(testProduct);
+        verify(productSearchIndex).index(testProduct);
+        verify(productCounter).add(1);
+        verify(productChangeRepository).save(argThat((ProductChange change) ->
+            change.getOperation() == ProductChange.Operation.CREATED
+                && testProduct.getId().equals(change.getProductId())));
     }
 
     @Test
@@ -97,7 +353,7 @@ class ProductServiceTest {
         Product updatedProduct = new Product();
         updatedProduct.setId(productId);
         updatedProduct.setName("Updated Product");
-        updatedProduct.setPrice(BigDecimal.valueOf(150.0));
+        updatedProduct.setPrice(new BigDecimal("150.00"));
         updatedProduct.setDescription("Updated Description");
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
@@ -107,9 +363,10 @@ class ProductServiceTest {
 
         assertTrue(result.isPresent());
         assertEquals("Updated Product", result.get().getName());
-        assertEquals(BigDecimal.valueOf(150.0), result.get().getPrice());
+        assertEquals(new BigDecimal("150.00"), result.get().getPrice());
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(updatedProduct);
+        verify(productCache).update(updatedProduct);
     }
 
     @Test
@@ -128,27 +385,221 @@ class ProductServiceTest {
         verify(productRepository, times(0)).save(any(Product.class));
     }
 
+    @Test
+    void testUpdateProductWithExpectedVersion() {
+        UUID productId = testProduct.getId();
+        when(productRepository.updateIfVersion(productId, testProduct.getName(), testProduct.getDescription(),
+            testProduct.getPrice(), 3L)).thenReturn(1);
+
+        Optional<Product> result = productService.updateProduct(testProduct, 3L);
+
+        assertTrue(result.isPresent());
+        assertEquals(4L, result.get().getVersion());
+        verify(productRepository, never()).findById(productId);
+        verify(productRepository, never()).existsById(productId);
+        verify(productCache).update(result.get());
+    }
+
+    @Test
+    void testUpdateProductWithExpectedVersionNotFound() {
+        UUID productId = testProduct.getId();
+        when(productRepository.updateIfVersion(productId, testProduct.getName(), testProduct.getDescription(),
+            testProduct.getPrice(), 3L)).thenReturn(0);
+        when(productRepository.existsById(productId)).thenReturn(false);
+
+        Optional<Product> result = productService.updateProduct(testProduct, 3L);
+
+        assertFalse(result.isPresent());
+        verify(productCache, never()).update(any(Product.class));
+    }
+
+    @Test
+    void testUpdateProductWithStaleVersion() {
+        UUID productId = testProduct.getId();
+        when(productRepository.updateIfVersion(productId, testProduct.getName(), testProduct.getDescription(),
+            testProduct.getPrice(), 3L)).thenReturn(0);
+        when(productRepository.existsById(productId)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> productService.updateProduct(testProduct, 3L));
+        verify(productCache, never()).update(any(Product.class));
+    }
+
     @Test
     void testDeleteProduct_WhenProductExists() {
         UUID productId = UUID.randomUUID();
-        when(productRepository.existsById(productId)).thenReturn(true);
+        when(productRepository.deleteIfExists(productId)).thenReturn(1);
 
         boolean result = productService.deleteProduct(productId);
 
         assertTrue(result, "Product should be deleted and return true");
-        verify(productRepository).deleteById(productId);
-        verify(productRepository).existsById(productId);
+        verify(productRepository).deleteIfExists(productId);
+        verify(productRepository, never()).existsById(productId);
+        verify(productRepository, never()).deleteById(productId);
+        verify(productCache).evict(productId);
+        verify(productSearchIndex).remove(productId);
+        verify(productCounter).add(-1);
+        verify(productChangeRepository).save(argThat((ProductChange change) ->
+            change.getOperation() == ProductChange.Operation.DELETED && change.getVersion() == null));
     }
 
     @Test
     void testDeleteProduct_WhenProductDoesNotExist() {
         UUID productId = UUID.randomUUID();
-        when(productRepository.existsById(productId)).thenReturn(false);
+        when(productRepository.deleteIfExists(productId)).thenReturn(0);
 
         boolean result = productService.deleteProduct(productId);
 
         assertFalse(result, "Product should not be deleted and return false");
-        verify(productRepository, never()).deleteById(productId);
-        verify(productRepository).existsById(productId);
+        verify(productRepository).deleteIfExists(productId);
+        verify(productCache, never()).evict(productId);
+    }
+
+    @Test
+    void testDeleteProductWithExpectedVersion() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.deleteIfVersion(productId, 2L)).thenReturn(1);
+
+        boolean result = productService.deleteProduct(productId, 2L);
+
+        assertTrue(result);
+        verify(productRepository, never()).existsById(productId);
+        verify(productCache).evict(productId);
+    }
+
+    @Test
+    void testDeleteProductWithStaleVersion() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.deleteIfVersion(productId, 2L)).thenReturn(0);
+        when(productRepository.existsById(productId)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> productService.deleteProduct(productId, 2L));
+        verify(productCache, never()).evict(productId);
+    }
+
+    @Test
+    void testDeleteProductWithExpectedVersionNotFound() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.deleteIfVersion(productId, 2L)).thenReturn(0);
+        when(productRepository.existsById(productId)).thenReturn(false);
+
+        assertFalse(productService.deleteProduct(productId, 2L));
+    }
+
+    @Test
+    void testCreateProducts() {
+        givenTransactionsExecute();
+        Product anotherProduct = testProduct.toBuilder().id(UUID.randomUUID()).name("Another Product").build();
+
+        List<ProductBatchResult> results = productService.createProducts(List.of(testProduct, anotherProduct));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.status() == ProductBatchResult.Status.CREATED));
+        assertEquals(1, results.get(1).index());
+        verify(productRepository).saveAll(List.of(testProduct, anotherProduct));
+        verify(productRepository).flushAndClear();
+        verify(productCounter).add(2);
+    }
+
+    @Test
+    void testCreateProductsInChunks() {
+        givenTransactionsExecute();
+        productProperties.getBatch().setChunkSize(1);
+        Product anotherProduct = testProduct.toBuilder().name("Another Product").build();
+
+        List<ProductBatchResult> results = productService.createProducts(List.of(testProduct, anotherProduct));
+
+        assertEquals(2, results.size());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(productRepository, times(2)).flushAndClear();
+    }
+
+    @Test
+    void testUpdateProductsReportsNotFoundAndConflict() {
+        givenTransactionsExecute();
+        testProduct.setVersion(2);
+        UUID missingId = UUID.randomUUID();
+        Product update = testProduct.toBuilder().name("Updated Product").build();
+        Product missing = testProduct.toBuilder().id(missingId).build();
+
+        when(productRepository.findAllById(List.of(testProduct.getId(), missingId)))
+            .thenReturn(List.of(testProduct));
+        // The mocked flush writes nothing, so the version is incremented like that of an unchanged product
+        when(productRepository.updateIfVersion(testProduct.getId(), "Updated Product",
+            testProduct.getDescription(), testProduct.getPrice(), 2L)).thenReturn(1);
+
+        List<ProductBatchResult> results = productService.updateProducts(List.of(
+            new ProductUpdate(update, 2L),
+            new ProductUpdate(missing, null),
+            new ProductUpdate(update, 1L)));
+
+        assertEquals(ProductBatchResult.Status.UPDATED, results.get(0).status());
+        assertEquals("Updated Product", results.get(0).product().getName());
+        assertEquals(3, results.get(0).product().getVersion());
+        assertEquals(ProductBatchResult.Status.NOT_FOUND, results.get(1).status());
+        assertEquals(ProductBatchResult.Status.CONFLICT, results.get(2).status());
+        verify(productRepository).flushAndClear();
+        verify(productCache).update(testProduct);
+    }
+
+    @Test
+    void testUpdateProductsRetriesFailedChunkItemByItem() {
+        givenTransactionsExecute();
+        Product update = testProduct.toBuilder().name("Updated Product").build();
+
+        when(productRepository.findAllById(List.of(testProduct.getId())))
+            .thenReturn(List.of(testProduct));
+        doThrow(new ObjectOptimisticLockingFailureException(Product.class, testProduct.getId()))
+            .when(productRepository).flushAndClear();
+
+        List<ProductBatchResult> results = productService.updateProducts(List.of(new ProductUpdate(update, null)));
+
+        assertEquals(1, results.size());
+        assertEquals(ProductBatchResult.Status.CONFLICT, results.getFirst().status());
+        verify(productRepository, times(2)).flushAndClear();
+    }
+
+    @Test
+    void testUpdatePricesLastPriceWins() {
+        givenTransactionsExecute();
+        UUID missingId = UUID.randomUUID();
+
+        when(productRepository.findAllById(List.of(testProduct.getId(), missingId)))
+            .thenReturn(List.of(testProduct));
+        when(productRepository.updateIfVersion(testProduct.getId(), testProduct.getName(),
+            testProduct.getDescription(), new BigDecimal("120.00"), 0L)).thenReturn(1);
+
+        List<ProductBatchResult> results = productService.updatePrices(List.of(
+            new ProductPrice(testProduct.getId(), BigDecimal.valueOf(110)),
+            new ProductPrice(missingId, BigDecimal.ONE),
+            new ProductPrice(testProduct.getId(), BigDecimal.valueOf(120))));
+
+        assertEquals(ProductBatchResult.Status.UPDATED, results.get(0).status());
+        assertEquals(ProductBatchResult.Status.NOT_FOUND, results.get(1).status());
+        assertEquals(new BigDecimal("120.00"), testProduct.getPrice());
+        verify(productRepository).flushAndClear();
+        verify(productCache).update(testProduct);
+    }
+
+    @Test
+    void testDeleteProducts() {
+        givenTransactionsExecute();
+        UUID missingId = UUID.randomUUID();
+
+        when(productRepository.findAllById(List.of(testProduct.getId(), missingId)))
+            .thenReturn(List.of(testProduct));
+
+        List<ProductBatchResult> results = productService.deleteProducts(List.of(
+            new ProductKey(testProduct.getId(), 0L),
+            new ProductKey(missingId, null)));
+
+        assertEquals(ProductBatchResult.Status.DELETED, results.get(0).status());
+        assertEquals(ProductBatchResult.Status.NOT_FOUND, results.get(1).status());
+        verify(productRepository).deleteAll(List.of(testProduct));
+        verify(productCache).evict(testProduct.getId());
+    }
+
+    private void givenTransactionsExecute() {
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }